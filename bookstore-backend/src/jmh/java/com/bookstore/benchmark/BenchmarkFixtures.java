@@ -0,0 +1,59 @@
+package com.bookstore.benchmark;
+
+import com.bookstore.model.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    static Book book(long id) {
+        return Book.builder()
+                .id(id)
+                .title("The Pragmatic Programmer " + id)
+                .author("Andrew Hunt")
+                .genre("Technology")
+                .isbn("978-0-201-" + id)
+                .price(new BigDecimal("42.50"))
+                .description("From journeyman to master.")
+                .stockQuantity(25)
+                .imageUrl("https://covers.openlibrary.org/b/isbn/9780201616224-L.jpg")
+                .build();
+    }
+
+    static User customer() {
+        return User.builder()
+                .id(7L)
+                .name("John Doe")
+                .email("customer@bookstore.com")
+                .password("{bcrypt}unused")
+                .role(User.Role.CUSTOMER)
+                .build();
+    }
+
+    static Order order(int itemCount) {
+        Order order = Order.builder()
+                .id(1L)
+                .user(customer())
+                .createdAt(LocalDateTime.of(2024, 1, 1, 12, 0))
+                .build();
+        List<OrderItem> items = new ArrayList<>();
+        for (int i = 0; i < itemCount; i++) {
+            Book book = book(i + 1);
+            items.add(OrderItem.builder()
+                    .id((long) i + 1)
+                    .order(order)
+                    .book(book)
+                    .quantity(1 + i % 3)
+                    .unitPrice(book.getPrice())
+                    .build());
+        }
+        order.setOrderItems(items);
+        return order;
+    }
+}
@@ -0,0 +1,92 @@
+package com.bookstore.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the JMH benchmarks and compares the scores with the committed baseline.
+ * Exits with status 1 when any benchmark is worse than the baseline by more than
+ * the tolerance and by more than both runs' error margins. Args: include regex, result file, baseline file, tolerance, update baseline.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        String include = args[0];
+        Path result = Path.of(args[1]);
+        Path baseline = Path.of(args[2]);
+        double tolerance = Double.parseDouble(args[3]);
+        boolean updateBaseline = Boolean.parseBoolean(args[4]);
+
+        Files.createDirectories(result.toAbsolutePath().getParent());
+        new Runner(new OptionsBuilder()
+                .include(include)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result.toString())
+                .build()).run();
+
+        if (updateBaseline || !Files.exists(baseline)) {
+            Files.createDirectories(baseline.toAbsolutePath().getParent());
+            Files.copy(result, baseline, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("Baseline written to " + baseline);
+            return;
+        }
+
+        List<String> regressions = compare(read(baseline), read(result), tolerance);
+        if (!regressions.isEmpty()) {
+            System.out.println("Benchmark regressions against " + baseline + ":");
+            regressions.forEach(line -> System.out.println("  " + line));
+            System.exit(1);
+        }
+        System.out.println("No benchmark regressed by more than " + (int) (tolerance * 100) + "%");
+    }
+
+    static List<String> compare(Map<String, JsonNode> baseline, Map<String, JsonNode> current, double tolerance) {
+        List<String> regressions = new ArrayList<>();
+        current.forEach((key, run) -> {
+            JsonNode previous = baseline.get(key);
+            if (previous == null) {
+                return;
+            }
+            double before = previous.path("primaryMetric").path("score").asDouble();
+            double after = run.path("primaryMetric").path("score").asDouble();
+            // Throughput: higher is better; average/sample time: lower is better
+            boolean higherIsBetter = "thrpt".equals(run.path("mode").asText());
+            double change = before == 0 ? 0 : (after - before) / before;
+            // A move inside the two 99.9% confidence intervals is noise, whatever its size
+            boolean significant = Math.abs(after - before) > scoreError(previous) + scoreError(run);
+            boolean regressed = significant && (higherIsBetter ? change < -tolerance : change > tolerance);
+            if (regressed) {
+                regressions.add(String.format("%s: %.3f -> %.3f %s (%+.1f%%)", key, before, after,
+                        run.path("primaryMetric").path("scoreUnit").asText(), change * 100));
+            }
+        });
+        return regressions;
+    }
+
+    // NaN when JMH had too few samples for an interval
+    private static double scoreError(JsonNode run) {
+        double error = run.path("primaryMetric").path("scoreError").asDouble();
+        return Double.isNaN(error) ? 0 : error;
+    }
+
+    private static Map<String, JsonNode> read(Path file) throws IOException {
+        Map<String, JsonNode> runs = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file.toFile())) {
+            runs.put(run.path("benchmark").asText() + run.path("params").toString(), run);
+        }
+        return runs;
+    }
+}
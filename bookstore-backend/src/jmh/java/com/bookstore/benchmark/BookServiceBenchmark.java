@@ -0,0 +1,34 @@
+package com.bookstore.benchmark;
+
+import com.bookstore.cache.BoundedTtlCache;
+import com.bookstore.dto.BookDto;
+import com.bookstore.model.Book;
+import com.bookstore.service.BookService;
+import com.bookstore.service.CatalogVersions;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@State(Scope.Benchmark)
+public class BookServiceBenchmark {
+
+    private BookService bookService;
+    private Book book;
+
+    @Setup
+    public void setUp() {
+        bookService = new BookService(null, null, new BoundedTtlCache<>("books", 0, 0),
+                new CatalogVersions(), null, null, null);
+        book = BenchmarkFixtures.book(1L);
+    }
+
+    @Benchmark
+    public BookDto.BookResponse toResponse() {
+        return bookService.toResponse(book);
+    }
+}
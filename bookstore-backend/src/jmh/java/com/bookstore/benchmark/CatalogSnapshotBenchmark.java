@@ -0,0 +1,77 @@
+package com.bookstore.benchmark;
+
+import com.bookstore.catalog.CatalogSnapshot;
+import com.bookstore.dto.BookDto;
+import com.bookstore.model.Book;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Page reads from the in-memory catalog; compare with the JPA path through the loadtest browse mix
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 3, jvmArgs = "-Xmx2g")
+@State(Scope.Benchmark)
+public class CatalogSnapshotBenchmark {
+
+    private static final int PAGE_SIZE = 12;
+
+    @Param({"10000", "1000000"})
+    private int books;
+
+    private CatalogSnapshot snapshot;
+    private long lastPageOffset;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        CatalogSnapshot.Builder builder = new CatalogSnapshot.Builder();
+        List<Book> catalog = new ArrayList<>(books);
+        for (long id = 1; id <= books; id++) {
+            catalog.add(Book.builder()
+                    .id(id)
+                    .title("Title " + Long.toString(random.nextLong() & Long.MAX_VALUE, 36))
+                    .author("Author " + random.nextInt(books / 10 + 1))
+                    .genre("Genre " + random.nextInt(40))
+                    .isbn("978-" + id)
+                    .price(BigDecimal.valueOf(100 + random.nextInt(9900), 2))
+                    .description("Synthetic book " + id + " used to size the catalog snapshot.")
+                    .stockQuantity(random.nextInt(50))
+                    .imageUrl("https://covers.example.com/" + random.nextInt(1000) + ".jpg")
+                    .version(0L)
+                    .build());
+        }
+        catalog.forEach(builder::add);
+        // The service reads these orders from the database; a plain string sort stands in for its collation
+        builder.collatedOrder("title", idsOrderedBy(catalog, Comparator.comparing(Book::getTitle)));
+        builder.collatedOrder("author", idsOrderedBy(catalog, Comparator.comparing(Book::getAuthor)));
+        snapshot = builder.build(0);
+        lastPageOffset = (long) (books / PAGE_SIZE - 1) * PAGE_SIZE;
+    }
+
+    private static long[] idsOrderedBy(List<Book> catalog, Comparator<Book> order) {
+        return catalog.stream().sorted(order.thenComparing(Book::getId)).mapToLong(Book::getId).toArray();
+    }
+
+    @Benchmark
+    public List<BookDto.BookResponse> firstPageByTitle() {
+        return snapshot.page("title", true, 0, PAGE_SIZE).orElseThrow();
+    }
+
+    @Benchmark
+    public List<BookDto.BookResponse> lastPageByTitle() {
+        return snapshot.page("title", true, lastPageOffset, PAGE_SIZE).orElseThrow();
+    }
+
+    @Benchmark
+    public List<BookDto.BookResponse> firstPageByPriceDescending() {
+        return snapshot.page("price", false, 0, PAGE_SIZE).orElseThrow();
+    }
+}
@@ -0,0 +1,79 @@
+package com.bookstore.benchmark;
+
+import com.bookstore.metrics.MetricsRegistry;
+import com.bookstore.security.JwtAuthFilter;
+import com.bookstore.security.JwtUtil;
+import com.bookstore.security.PrincipalCache;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Token generation/validation and per-request filter overhead, with the verified-claims cache on and off
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    @Param({"true", "false"})
+    private boolean claimsCache;
+
+    private JwtUtil jwtUtil;
+    private JwtAuthFilter filter;
+    private UserDetails user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret",
+                "bookstore_super_secret_key_2024_very_long_and_secure_string_for_jwt");
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 86_400_000L);
+        ReflectionTestUtils.setField(jwtUtil, "claimsCacheEnabled", claimsCache);
+        ReflectionTestUtils.setField(jwtUtil, "claimsCacheMaxSize", 10_000);
+        ReflectionTestUtils.invokeMethod(jwtUtil, "init");
+
+        user = new User("customer@bookstore.com", "", List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER")));
+        token = jwtUtil.generateToken(user, Map.of("role", "CUSTOMER", "name", "John Doe"));
+
+        PrincipalCache principalCache = new PrincipalCache(email -> user, true, 10_000, 60, 86_400_000L);
+        filter = new JwtAuthFilter(jwtUtil, principalCache, new MetricsRegistry());
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(user, Map.of("role", "CUSTOMER", "name", "John Doe"));
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtil.validateToken(token, user);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse filterRequest() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/orders/my-orders");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, new MockFilterChain());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        return response;
+    }
+}
@@ -0,0 +1,35 @@
+package com.bookstore.benchmark;
+
+import com.bookstore.metrics.LatencyTimer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Cost of instrumenting one call: two nanoTime reads plus a histogram record, under contention
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@Threads(4)
+@State(Scope.Benchmark)
+public class MetricsBenchmark {
+
+    private final LatencyTimer timer = new LatencyTimer();
+
+    @Benchmark
+    public long baselineNanoTime() {
+        return System.nanoTime() - System.nanoTime();
+    }
+
+    @Benchmark
+    public void timedCall() {
+        long start = System.nanoTime();
+        timer.record(System.nanoTime() - start);
+    }
+
+    @Benchmark
+    public double scrapePercentile() {
+        return timer.percentileSeconds(0.99);
+    }
+}
@@ -0,0 +1,37 @@
+package com.bookstore.benchmark;
+
+import com.bookstore.cache.BoundedTtlCache;
+import com.bookstore.dto.OrderDto;
+import com.bookstore.model.Order;
+import com.bookstore.service.CatalogVersions;
+import com.bookstore.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@State(Scope.Benchmark)
+public class OrderServiceBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int items;
+
+    private OrderService orderService;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        orderService = new OrderService(null, null, null, new BoundedTtlCache<>("books", 0, 0),
+                new CatalogVersions(), null, null, null, null);
+        order = BenchmarkFixtures.order(items);
+    }
+
+    @Benchmark
+    public OrderDto.OrderResponse toResponse() {
+        return orderService.toResponse(order);
+    }
+}
@@ -0,0 +1,49 @@
+package com.bookstore.benchmark;
+
+import com.bookstore.cache.BoundedTtlCache;
+import com.bookstore.dto.BookDto;
+import com.bookstore.service.BookService;
+import com.bookstore.service.CatalogVersions;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@State(Scope.Benchmark)
+public class PageSerializationBenchmark {
+
+    @Param({"12", "100"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private Page<BookDto.BookResponse> page;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        BookService bookService = new BookService(null, null, new BoundedTtlCache<>("books", 0, 0),
+                new CatalogVersions(), null, null, null);
+        List<BookDto.BookResponse> content = LongStream.rangeClosed(1, pageSize)
+                .mapToObj(BenchmarkFixtures::book)
+                .map(bookService::toResponse)
+                .toList();
+        page = new PageImpl<>(content, PageRequest.of(0, pageSize), 100_000);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
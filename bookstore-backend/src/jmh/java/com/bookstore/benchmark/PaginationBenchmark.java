@@ -0,0 +1,124 @@
+package com.bookstore.benchmark;
+
+import com.bookstore.BookstoreApplication;
+import com.bookstore.dto.BookDto;
+import com.bookstore.dto.OrderDto;
+import com.bookstore.dto.SliceResponse;
+import com.bookstore.model.Book;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.BookSort;
+import com.bookstore.service.BookService;
+import com.bookstore.service.KeysetCursor;
+import com.bookstore.service.OrderService;
+import com.bookstore.service.PageLimits;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Offset vs keyset listing of books (by title) and orders (newest first) in H2, on the first page
+// and on page 10,000. The cursor for a deep page is the one the previous page would have returned.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@State(Scope.Benchmark)
+public class PaginationBenchmark {
+
+    private static final int BOOK_PAGE_SIZE = 12;
+    private static final int ORDER_PAGE_SIZE = 10;
+    // Both pages are read from the same data, enough for page 10,000 and a little more
+    private static final int BOOKS = 10_000 * BOOK_PAGE_SIZE + 1_000;
+    private static final int ORDERS = 10_000 * ORDER_PAGE_SIZE + 1_000;
+
+    @Param({"1", "10000"})
+    private int page;
+
+    private ConfigurableApplicationContext context;
+    private BookService bookService;
+    private OrderService orderService;
+    private Pageable bookPage;
+    private Pageable orderPage;
+    private String bookCursor;
+    private String orderCursor;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(BookstoreApplication.class)
+                .run("--spring.profiles.active=loadtest",
+                        "--bookstore.loadtest.books=" + BOOKS,
+                        "--bookstore.loadtest.users=1",
+                        "--logging.level.com.bookstore=WARN");
+        bookService = context.getBean(BookService.class);
+        orderService = context.getBean(OrderService.class);
+        seedOrders(context.getBean(JdbcTemplate.class), ORDERS);
+
+        // Pages are 1-based here, 0-based in the API
+        bookPage = PageLimits.pageRequest(page - 1, BOOK_PAGE_SIZE, BookSort.TITLE.toSort(Sort.Direction.ASC));
+        orderPage = PageLimits.pageRequest(page - 1, ORDER_PAGE_SIZE,
+                Sort.by("createdAt").descending().and(Sort.by("id").descending()));
+        if (page > 1) {
+            Book lastBook = context.getBean(BookRepository.class)
+                    .findAll(PageLimits.pageRequest(page - 2, BOOK_PAGE_SIZE, bookPage.getSort()))
+                    .getContent().get(BOOK_PAGE_SIZE - 1);
+            bookCursor = new KeysetCursor("title:asc", BookSort.TITLE.cursorValue(lastBook), lastBook.getId())
+                    .encode();
+            List<OrderDto.OrderResponse> previous = orderService
+                    .getAllOrders(PageLimits.pageRequest(page - 2, ORDER_PAGE_SIZE, orderPage.getSort()))
+                    .getContent();
+            OrderDto.OrderResponse lastOrder = previous.get(ORDER_PAGE_SIZE - 1);
+            orderCursor = new KeysetCursor("createdAt:desc", lastOrder.getCreatedAt().toString(), lastOrder.getId())
+                    .encode();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<BookDto.BookResponse> booksOffset() {
+        return bookService.listBooks(null, null, null, null, bookPage);
+    }
+
+    @Benchmark
+    public SliceResponse<BookDto.BookResponse> booksCursor() {
+        return bookService.getBooksAfter(bookCursor, BOOK_PAGE_SIZE, "title", "asc", null);
+    }
+
+    @Benchmark
+    public Page<OrderDto.OrderResponse> ordersOffset() {
+        return orderService.getAllOrders(orderPage);
+    }
+
+    @Benchmark
+    public SliceResponse<OrderDto.OrderResponse> ordersCursor() {
+        return orderService.getAllOrdersAfter(orderCursor, ORDER_PAGE_SIZE);
+    }
+
+    // One customer's order history, a minute apart; items do not matter for the page query
+    private static void seedOrders(JdbcTemplate jdbcTemplate, int orders) {
+        long userId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM users", Long.class);
+        LocalDateTime start = LocalDateTime.now().minusMinutes(orders);
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < orders; i++) {
+            batch.add(new Object[]{userId, Timestamp.valueOf(start.plusMinutes(i))});
+            if (batch.size() == 1_000 || i == orders - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO orders (user_id, status, payment_status, total_amount, "
+                        + "item_count, created_at, version) VALUES (?, 'PENDING', 'PENDING', 10, 1, ?, 0)", batch);
+                batch.clear();
+            }
+        }
+    }
+}
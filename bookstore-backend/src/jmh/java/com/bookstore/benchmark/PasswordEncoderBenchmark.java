@@ -0,0 +1,35 @@
+package com.bookstore.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+// Same encoder and default cost (10) as SecurityConfig.passwordEncoder
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(3)
+@State(Scope.Benchmark)
+public class PasswordEncoderBenchmark {
+
+    private BCryptPasswordEncoder encoder;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        encoder = new BCryptPasswordEncoder();
+        hash = encoder.encode("customer123");
+    }
+
+    @Benchmark
+    public String encode() {
+        return encoder.encode("customer123");
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return encoder.matches("customer123", hash);
+    }
+}
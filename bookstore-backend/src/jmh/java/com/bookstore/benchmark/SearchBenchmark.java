@@ -0,0 +1,72 @@
+package com.bookstore.benchmark;
+
+import com.bookstore.BookstoreApplication;
+import com.bookstore.model.Book;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.search.BookSearchEngine;
+import com.bookstore.search.InvertedIndexBookSearchEngine;
+import com.bookstore.search.JpqlBookSearchEngine;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.concurrent.TimeUnit;
+
+// Keyword search over the load-test catalog in H2: inverted index vs the LIKE query it replaces.
+// Sample time, so the JSON result carries p50/p99 per engine and keyword.
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgs = "-Xmx3g")
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 12, Sort.by("id"));
+
+    @Param({"1000000"})
+    private int books;
+
+    // A title number (a dozen prefix matches) and a common title word (too many, index falls back)
+    @Param({"52341", "harbor"})
+    private String keyword;
+
+    private ConfigurableApplicationContext context;
+    private BookSearchEngine index;
+    private BookSearchEngine like;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(BookstoreApplication.class)
+                .run("--spring.profiles.active=loadtest",
+                        "--bookstore.loadtest.books=" + books,
+                        "--bookstore.loadtest.users=1",
+                        "--logging.level.com.bookstore=WARN");
+        BookRepository bookRepository = context.getBean(BookRepository.class);
+        InvertedIndexBookSearchEngine indexEngine = context.getBean(InvertedIndexBookSearchEngine.class);
+        // Waits for the startup build, then builds again so the index is complete before measuring
+        indexEngine.rebuild();
+        index = indexEngine;
+        like = new JpqlBookSearchEngine(bookRepository);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Book> invertedIndex() {
+        return index.search(keyword, Specification.where(null), FIRST_PAGE);
+    }
+
+    @Benchmark
+    public Page<Book> like() {
+        return like.search(keyword, Specification.where(null), FIRST_PAGE);
+    }
+}
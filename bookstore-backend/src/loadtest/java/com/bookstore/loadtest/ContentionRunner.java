@@ -0,0 +1,120 @@
+package com.bookstore.loadtest;
+
+import com.bookstore.BookstoreApplication;
+import com.bookstore.exception.ConflictException;
+import com.bookstore.metrics.LatencyTimer;
+import com.bookstore.model.Book;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.service.OptimisticRetry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Contention benchmark: many threads doing read-modify-write on a handful of hot books, once with
+ * version checks plus OptimisticRetry (what BookService.updateBook does) and once with
+ * SELECT ... FOR UPDATE. Runs in-process on the loadtest profile.
+ */
+public class ContentionRunner {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) {
+                options.put(arg.substring(0, eq), arg.substring(eq + 1));
+            }
+        }
+        int threads = Integer.parseInt(options.getOrDefault("threads", "16"));
+        int hotBooks = Integer.parseInt(options.getOrDefault("hotBooks", "4"));
+        int seconds = Integer.parseInt(options.getOrDefault("duration", "20"));
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BookstoreApplication.class)
+                .run("--spring.profiles.active=loadtest", "--bookstore.loadtest.books=" + Math.max(hotBooks, 100));
+        try {
+            List<Long> ids = context.getBean(BookRepository.class).findAll().stream()
+                    .map(Book::getId).sorted().limit(hotBooks).toList();
+            OptimisticRetry optimisticRetry = context.getBean(OptimisticRetry.class);
+            TransactionTemplate transactionTemplate =
+                    new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+            EntityManager entityManager = context.getBean(EntityManager.class);
+
+            Mode optimistic = new Mode("optimistic", bookId -> optimisticRetry.execute("Book " + bookId, () -> {
+                Book book = entityManager.find(Book.class, bookId);
+                book.setPrice(nextPrice(book.getPrice()));
+                entityManager.flush();
+                return null;
+            }));
+            Mode pessimistic = new Mode("pessimistic", bookId -> transactionTemplate.executeWithoutResult(status -> {
+                Book book = entityManager.find(Book.class, bookId, LockModeType.PESSIMISTIC_WRITE);
+                book.setPrice(nextPrice(book.getPrice()));
+            }));
+
+            System.out.printf("%d threads updating %d hot books for %d s per mode%n", threads, hotBooks, seconds);
+            System.out.printf("%-12s %10s %9s %9s %9s %9s %9s%n",
+                    "mode", "updates/s", "conflicts", "retries", "p50 ms", "p99 ms", "max ms");
+            for (Mode mode : List.of(optimistic, pessimistic)) {
+                run(mode, ids, threads, Math.min(3, seconds));
+                long retriesBefore = optimisticRetry.retryCount();
+                Result result = run(mode, ids, threads, seconds);
+                long retries = mode == optimistic ? optimisticRetry.retryCount() - retriesBefore : 0;
+                System.out.printf("%-12s %10.1f %9d %9d %9.2f %9.2f %9.2f%n", mode.name(),
+                        result.latency().count() / (double) seconds, result.conflicts(), retries,
+                        result.latency().percentileSeconds(0.50) * 1000,
+                        result.latency().percentileSeconds(0.99) * 1000,
+                        result.latency().maxSeconds() * 1000);
+            }
+        } finally {
+            context.close();
+        }
+        System.exit(0);
+    }
+
+    private static Result run(Mode mode, List<Long> ids, int threads, int seconds) throws InterruptedException {
+        LatencyTimer latency = new LatencyTimer();
+        LongAdder conflicts = new LongAdder();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            pool.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    Long bookId = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+                    long start = System.nanoTime();
+                    try {
+                        mode.update().accept(bookId);
+                        latency.record(System.nanoTime() - start);
+                    } catch (ConflictException e) {
+                        conflicts.increment();
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+        return new Result(latency, conflicts.sum());
+    }
+
+    private static BigDecimal nextPrice(BigDecimal price) {
+        return price.compareTo(BigDecimal.valueOf(1000)) > 0 ? BigDecimal.TEN : price.add(BigDecimal.ONE);
+    }
+
+    private record Mode(String name, Consumer<Long> update) {
+    }
+
+    private record Result(LatencyTimer latency, long conflicts) {
+    }
+}
@@ -0,0 +1,126 @@
+package com.bookstore.loadtest;
+
+import com.bookstore.BookstoreApplication;
+import com.bookstore.config.LoadTestDataSeeder;
+import com.bookstore.dto.OrderDto;
+import com.bookstore.exception.BadRequestException;
+import com.bookstore.inventory.HotStockLedger;
+import com.bookstore.service.OrderService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Oversell check for the hot stock ledger. Many threads buy a few hot books with limited stock
+ * until they sell out. One order in five also asks for a cold book that has no stock, so it rolls
+ * back after its hot stock was taken. After a final flush, the units in committed orders plus the
+ * stock left in the database must equal the starting stock for every hot book. Exits with status 1
+ * when they do not.
+ */
+public class HotStockRunner {
+
+    private static final String SOLD_SQL = "SELECT COALESCE(SUM(quantity), 0) FROM order_items WHERE book_id = ?";
+    private static final String STOCK_SQL = "SELECT stock_quantity FROM books WHERE id = ?";
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) {
+                options.put(arg.substring(0, eq), arg.substring(eq + 1));
+            }
+        }
+        int threads = Integer.parseInt(options.getOrDefault("threads", "64"));
+        int hotBooks = Integer.parseInt(options.getOrDefault("hotBooks", "4"));
+        int stock = Integer.parseInt(options.getOrDefault("stock", "2000"));
+        int seconds = Integer.parseInt(options.getOrDefault("duration", "20"));
+
+        // The loadtest seeder inserts books 1..N into an empty database, so the hot ids are known up front
+        List<Long> hotIds = LongStream.rangeClosed(1, hotBooks).boxed().toList();
+        long coldId = hotBooks + 1L;
+        Path logDir = Files.createTempDirectory("hot-stock");
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BookstoreApplication.class)
+                .run("--spring.profiles.active=loadtest",
+                        "--bookstore.loadtest.books=" + Math.max(hotBooks + 1, 100),
+                        "--bookstore.inventory.hot.enabled=true",
+                        "--bookstore.inventory.hot.book-ids=" + hotIds.stream().map(String::valueOf)
+                                .collect(Collectors.joining(",")),
+                        "--bookstore.inventory.hot.log-dir=" + logDir);
+        boolean consistent = true;
+        try {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            OrderService orderService = context.getBean(OrderService.class);
+            HotStockLedger ledger = context.getBean(HotStockLedger.class);
+            int users = Integer.parseInt(context.getEnvironment().getProperty("bookstore.loadtest.users", "200"));
+            // Set before the first order, which is when the ledger seeds its counters
+            hotIds.forEach(id -> jdbcTemplate.update("UPDATE books SET stock_quantity = ? WHERE id = ?", stock, id));
+            jdbcTemplate.update("UPDATE books SET stock_quantity = 0 WHERE id = ?", coldId);
+
+            LongAdder placed = new LongAdder();
+            LongAdder refused = new LongAdder();
+            LongAdder rolledBack = new LongAdder();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            for (int i = 0; i < threads; i++) {
+                pool.execute(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        boolean withCold = random.nextInt(5) == 0;
+                        OrderDto.PlaceOrderRequest request = new OrderDto.PlaceOrderRequest();
+                        List<OrderDto.OrderItemRequest> items = new ArrayList<>();
+                        items.add(item(hotIds.get(random.nextInt(hotIds.size())), 1 + random.nextInt(3)));
+                        if (withCold) {
+                            items.add(item(coldId, 1));
+                        }
+                        request.setItems(items);
+                        try {
+                            orderService.placeOrder(LoadTestDataSeeder.userEmail(random.nextInt(users)), request);
+                            placed.increment();
+                        } catch (BadRequestException e) {
+                            (withCold ? rolledBack : refused).increment();
+                        }
+                    }
+                });
+            }
+            pool.shutdown();
+            pool.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+            ledger.flush();
+
+            System.out.printf("%d threads for %d s: %d orders placed, %d refused for stock, %d rolled back%n",
+                    threads, seconds, placed.sum(), refused.sum(), rolledBack.sum());
+            System.out.printf("%-8s %8s %8s %8s %8s%n", "book", "initial", "sold", "left", "status");
+            for (Long id : hotIds) {
+                long sold = jdbcTemplate.queryForObject(SOLD_SQL, Long.class, id);
+                long left = jdbcTemplate.queryForObject(STOCK_SQL, Long.class, id);
+                boolean ok = left >= 0 && sold + left == stock;
+                consistent &= ok;
+                System.out.printf("%-8d %8d %8d %8d %8s%n", id, stock, sold, left, ok ? "ok" : "MISMATCH");
+            }
+        } finally {
+            context.close();
+        }
+        System.out.println(consistent ? "No oversell: every unit sold is accounted for" : "Stock mismatch detected");
+        System.exit(consistent ? 0 : 1);
+    }
+
+    private static OrderDto.OrderItemRequest item(Long bookId, int quantity) {
+        OrderDto.OrderItemRequest item = new OrderDto.OrderItemRequest();
+        item.setBookId(bookId);
+        item.setQuantity(quantity);
+        return item;
+    }
+}
@@ -0,0 +1,70 @@
+package com.bookstore.loadtest;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Samples heap and platform threads of this JVM while the in-process application is under load
+class JvmSampler implements AutoCloseable {
+
+    private static final long INTERVAL_MILLIS = 250;
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final Thread sampler;
+    private volatile long maxHeapUsed;
+    private volatile long maxHeapCommitted;
+    private volatile int maxPlatformThreads;
+    private volatile long samples;
+
+    JvmSampler() {
+        threads.resetPeakThreadCount();
+        sampler = new Thread(this::sampleLoop, "loadtest-jvm-sampler");
+        sampler.setDaemon(true);
+        sampler.start();
+    }
+
+    private void sampleLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            long used = memory.getHeapMemoryUsage().getUsed();
+            long committed = memory.getHeapMemoryUsage().getCommitted();
+            maxHeapUsed = Math.max(maxHeapUsed, used);
+            maxHeapCommitted = Math.max(maxHeapCommitted, committed);
+            maxPlatformThreads = Math.max(maxPlatformThreads, threads.getThreadCount());
+            samples++;
+            try {
+                Thread.sleep(INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    // Restores the interrupt instead of throwing it, so try-with-resources needs no handler
+    @Override
+    public void close() {
+        sampler.interrupt();
+        try {
+            sampler.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    Map<String, Object> toJson() {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("maxHeapUsedMb", maxHeapUsed / (1024 * 1024));
+        json.put("maxHeapCommittedMb", maxHeapCommitted / (1024 * 1024));
+        json.put("maxPlatformThreads", maxPlatformThreads);
+        json.put("peakPlatformThreads", threads.getPeakThreadCount());
+        json.put("samples", samples);
+        return json;
+    }
+
+    String toLine() {
+        return String.format("JVM: max heap used %d MB (committed %d MB), max platform threads %d",
+                maxHeapUsed / (1024 * 1024), maxHeapCommitted / (1024 * 1024), maxPlatformThreads);
+    }
+}
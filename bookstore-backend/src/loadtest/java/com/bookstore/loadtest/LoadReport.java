@@ -0,0 +1,114 @@
+package com.bookstore.loadtest;
+
+import com.bookstore.metrics.LatencyTimer;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Per-endpoint counters; latencies go into the same histogram the /api/admin/metrics endpoint uses
+class LoadReport {
+
+    private final Map<Scenario, EndpointStats> endpoints = new EnumMap<>(Scenario.class);
+    private long elapsedNanos;
+
+    LoadReport() {
+        for (Scenario scenario : Scenario.values()) {
+            endpoints.put(scenario, new EndpointStats());
+        }
+    }
+
+    void record(Scenario scenario, int status, long nanos) {
+        EndpointStats stats = endpoints.get(scenario);
+        stats.latency.record(nanos);
+        stats.statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+        if (status >= 400) {
+            stats.errors.increment();
+        }
+    }
+
+    // Transport failures (timeouts, refused connections) never produce a status or a latency sample
+    void recordFailure(Scenario scenario) {
+        EndpointStats stats = endpoints.get(scenario);
+        stats.failures.increment();
+        stats.errors.increment();
+    }
+
+    void finish(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    long totalRequests() {
+        return endpoints.values().stream().mapToLong(s -> s.latency.count() + s.failures.sum()).sum();
+    }
+
+    String toTable() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-24s %9s %7s %9s %9s %9s %9s %9s %9s%n", "endpoint", "requests", "errors",
+                "req/s", "mean ms", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        double seconds = elapsedNanos / 1e9;
+        endpoints.forEach((scenario, stats) -> {
+            long count = stats.latency.count();
+            if (count + stats.failures.sum() == 0) {
+                return;
+            }
+            sb.append(String.format("%-24s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", label(scenario),
+                    count + stats.failures.sum(), stats.errors.sum(), count / seconds,
+                    count == 0 ? 0 : stats.latency.totalSeconds() * 1000 / count,
+                    stats.latency.percentileSeconds(0.50) * 1000, stats.latency.percentileSeconds(0.95) * 1000,
+                    stats.latency.percentileSeconds(0.99) * 1000, stats.latency.maxSeconds() * 1000));
+        });
+        sb.append(String.format("%-24s %9d %7s %9.1f%n", "total", totalRequests(), "",
+                totalRequests() / seconds));
+        return sb.toString();
+    }
+
+    Map<String, Object> toJson(Map<String, Object> meta) {
+        Map<String, Object> json = new LinkedHashMap<>(meta);
+        double seconds = elapsedNanos / 1e9;
+        json.put("elapsedSeconds", seconds);
+        json.put("totalRequests", totalRequests());
+        json.put("throughput", totalRequests() / seconds);
+        Map<String, Object> byEndpoint = new LinkedHashMap<>();
+        endpoints.forEach((scenario, stats) -> {
+            long count = stats.latency.count();
+            Map<String, Object> e = new LinkedHashMap<>();
+            e.put("endpoint", label(scenario));
+            e.put("requests", count + stats.failures.sum());
+            e.put("errors", stats.errors.sum());
+            e.put("transportFailures", stats.failures.sum());
+            e.put("throughput", count / seconds);
+            e.put("meanMillis", count == 0 ? 0 : stats.latency.totalSeconds() * 1000 / count);
+            e.put("p50Millis", stats.latency.percentileSeconds(0.50) * 1000);
+            e.put("p95Millis", stats.latency.percentileSeconds(0.95) * 1000);
+            e.put("p99Millis", stats.latency.percentileSeconds(0.99) * 1000);
+            e.put("maxMillis", stats.latency.maxSeconds() * 1000);
+            Map<Integer, Long> statuses = new TreeMap<>();
+            stats.statuses.forEach((status, n) -> statuses.put(status, n.sum()));
+            e.put("statuses", statuses);
+            byEndpoint.put(scenario.name().toLowerCase(), e);
+        });
+        json.put("endpoints", byEndpoint);
+        return json;
+    }
+
+    private static String label(Scenario scenario) {
+        return switch (scenario) {
+            case BROWSE -> "GET /api/books";
+            case DETAIL -> "GET /api/books/{id}";
+            case SEARCH -> "GET /api/books?search";
+            case LOGIN -> "POST /api/auth/login";
+            case CHECKOUT -> "POST /api/orders";
+        };
+    }
+
+    private static final class EndpointStats {
+        private final LatencyTimer latency = new LatencyTimer();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+    }
+}
@@ -0,0 +1,162 @@
+package com.bookstore.loadtest;
+
+import com.bookstore.BookstoreApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Boots the application on the loadtest profile (embedded H2 + LoadTestDataSeeder), drives a weighted
+ * traffic mix against it and prints a per-endpoint throughput/latency report.
+ * Pass baseUrl=http://host:port to drive an already running instance instead.
+ */
+public class LoadTestRunner {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int duration = Integer.parseInt(options.getOrDefault("duration", "60"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "15"));
+        // A comma-separated list runs one measurement per level, e.g. concurrency=1,16,256
+        List<Integer> levels = Arrays.stream(options.getOrDefault("concurrency", "32").split(","))
+                .map(String::trim).map(Integer::valueOf).toList();
+        Map<Scenario, Integer> mix = Scenario.parseMix(options.getOrDefault("mix",
+                "browse=50,detail=20,search=15,login=5,checkout=10"));
+        Path report = Path.of(options.getOrDefault("report", "target/loadtest-report.json"));
+        String baseUrl = options.getOrDefault("baseUrl", "");
+
+        ConfigurableApplicationContext context = null;
+        if (baseUrl.isBlank()) {
+            long start = System.nanoTime();
+            context = new SpringApplicationBuilder(BookstoreApplication.class)
+                    .run("--spring.profiles.active=loadtest");
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            System.out.printf("Application started on %s in %d ms%n", baseUrl,
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+
+        try {
+            HttpClient client = HttpClient.newBuilder()
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .executor(Executors.newFixedThreadPool(4))
+                    .build();
+            ObjectMapper objectMapper = new ObjectMapper();
+            int users = Integer.parseInt(options.getOrDefault("users",
+                    context != null ? context.getEnvironment().getProperty("bookstore.loadtest.users", "200") : "200"));
+            String password = options.getOrDefault("password", "loadtest123");
+            Workload workload = Workload.discover(client, objectMapper, baseUrl, users, password);
+            System.out.printf("Workload: %d books (ids %d..%d), %d search terms, %d genres, %d users%n",
+                    workload.bookCount(), workload.minBookId(), workload.maxBookId(),
+                    workload.searchTerms().size(), workload.genres().size(), users);
+
+            for (int concurrency : levels) {
+                Path levelReport = levels.size() == 1 ? report : withSuffix(report, "-c" + concurrency);
+                measure(client, objectMapper, workload, mix, concurrency, warmup, duration, context, baseUrl,
+                        options, levelReport);
+            }
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+        System.exit(0);
+    }
+
+    private static void measure(HttpClient client, ObjectMapper objectMapper, Workload workload,
+                                Map<Scenario, Integer> mix, int concurrency, int warmup, int duration,
+                                ConfigurableApplicationContext context, String baseUrl,
+                                Map<String, String> options, Path report) throws Exception {
+        System.out.printf("%n== %d concurrent users ==%n", concurrency);
+        LoadReport warmupStats = run(client, objectMapper, workload, mix, concurrency, warmup);
+        System.out.printf("Warmup done: %d requests in %d s (discarded)%n", warmupStats.totalRequests(), warmup);
+        LoadReport result;
+        Map<String, Object> jvm = null;
+        if (context != null) {
+            try (JvmSampler sampler = new JvmSampler()) {
+                result = run(client, objectMapper, workload, mix, concurrency, duration);
+                jvm = sampler.toJson();
+                System.out.println(sampler.toLine());
+            }
+        } else {
+            result = run(client, objectMapper, workload, mix, concurrency, duration);
+        }
+
+        System.out.println();
+        System.out.print(result.toTable());
+        Map<String, Object> meta = new LinkedHashMap<>();
+        meta.put("baseUrl", baseUrl);
+        meta.put("durationSeconds", duration);
+        meta.put("warmupSeconds", warmup);
+        meta.put("concurrency", concurrency);
+        meta.put("mix", options.getOrDefault("mix", ""));
+        meta.put("javaVersion", System.getProperty("java.version"));
+        meta.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        if (context != null) {
+            meta.put("serverThreads", virtualThreadsActive(context) ? "virtual" : "platform");
+            meta.put("jvm", jvm);
+        }
+        if (report.getParent() != null) {
+            Files.createDirectories(report.getParent());
+        }
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(report.toFile(), result.toJson(meta));
+        System.out.println("Report written to " + report.toAbsolutePath());
+    }
+
+    private static Path withSuffix(Path report, String suffix) {
+        String name = report.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String renamed = dot < 0 ? name + suffix : name.substring(0, dot) + suffix + name.substring(dot);
+        return report.resolveSibling(renamed);
+    }
+
+    private static LoadReport run(HttpClient client, ObjectMapper objectMapper, Workload workload,
+                                  Map<Scenario, Integer> mix, int concurrency, int seconds) throws InterruptedException {
+        LoadReport report = new LoadReport();
+        if (seconds <= 0) {
+            return report;
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService workers = newWorkerPool(concurrency);
+        long start = System.nanoTime();
+        for (int i = 0; i < concurrency; i++) {
+            workers.execute(new VirtualUser(i, client, objectMapper, workload, mix, report, deadline));
+        }
+        workers.shutdown();
+        workers.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+        report.finish(System.nanoTime() - start);
+        return report;
+    }
+
+    // Clients run on virtual threads when the JDK has them, so the driver adds few platform threads to the sample
+    private static ExecutorService newWorkerPool(int concurrency) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(concurrency);
+        }
+    }
+
+    private static boolean virtualThreadsActive(ConfigurableApplicationContext context) {
+        return Runtime.version().feature() >= 21
+                && context.getEnvironment().getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) {
+                options.put(arg.substring(0, eq), arg.substring(eq + 1));
+            }
+        }
+        return options;
+    }
+}
@@ -0,0 +1,205 @@
+package com.bookstore.loadtest;
+
+import com.bookstore.BookstoreApplication;
+import com.bookstore.repository.BookSort;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Index check for the catalog listing sorts and the repository queries. For each query it runs EXPLAIN
+ * on hand-written SQL equivalent to what Hibernate issues, and times it. A query fails if the database would scan
+ * the whole table. For a query with an ORDER BY, it also fails if the database would sort the rows
+ * instead of reading them in index order. Exits with status 1 if any query fails.
+ * <p>
+ * Runs in-process on the loadtest profile and adds synthetic orders to the seeded data. On H2 the
+ * schema comes from the entities. Point LOADTEST_DB_URL at MySQL or PostgreSQL with LOADTEST_MIGRATE=true
+ * and LOADTEST_DDL_AUTO=validate to check the migrations. PostgreSQL plans are taken with seq scans
+ * and sorts priced out. That makes the check ask whether an index can serve the query, whatever the
+ * table sizes. H2 cannot read an index backwards, so its descending plans are printed but not counted.
+ */
+public class QueryPlanRunner {
+
+    private static final int PAGE_SIZE = 12;
+
+    private enum Expect { INDEXED, ORDERED }
+
+    private record Check(String name, Expect expect, boolean descending, String sql, String deepSql) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) {
+                options.put(arg.substring(0, eq), arg.substring(eq + 1));
+            }
+        }
+        int books = Integer.parseInt(options.getOrDefault("books", "20000"));
+        int orders = Integer.parseInt(options.getOrDefault("orders", "20000"));
+        int iterations = Integer.parseInt(options.getOrDefault("iterations", "200"));
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BookstoreApplication.class)
+                .run("--spring.profiles.active=loadtest", "--bookstore.loadtest.books=" + books);
+        boolean allPass = true;
+        String database;
+        try (Connection connection = context.getBean(DataSource.class).getConnection()) {
+            // One connection for everything, so session settings apply to every EXPLAIN
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+            database = connection.getMetaData().getDatabaseProductName();
+            seedOrders(jdbcTemplate, orders);
+            analyze(jdbcTemplate, database);
+            System.out.printf("%s, %d books, %d orders%n%n", database, books, orders);
+            System.out.printf("%-34s %-8s %-6s %12s %12s%n", "query", "expects", "plan", "mean ms", "deep ms");
+            for (Check check : checks(jdbcTemplate, books)) {
+                String plan = jdbcTemplate.queryForList("EXPLAIN " + check.sql()).stream()
+                        .map(row -> row.values().stream().map(String::valueOf).collect(Collectors.joining(" | ")))
+                        .collect(Collectors.joining("\n"));
+                String failure = failure(database, check.expect(), plan);
+                boolean counted = !(database.equals("H2") && check.descending());
+                allPass &= failure == null || !counted;
+                System.out.printf("%-34s %-8s %-6s %12.3f %12s%n", check.name(), check.expect(),
+                        failure == null ? "ok" : counted ? failure : failure + "*",
+                        meanMillis(jdbcTemplate, check.sql(), iterations),
+                        check.deepSql() == null ? "-"
+                                : String.format("%.3f", meanMillis(jdbcTemplate, check.deepSql(), iterations)));
+                if (failure != null && counted) {
+                    System.out.println(plan.indent(4));
+                }
+            }
+        } finally {
+            context.close();
+        }
+        System.out.println(allPass ? "\nEvery query checked is served by an index."
+                : "\nSome queries scan or sort; see the plans above.");
+        if (database.equals("H2")) {
+            System.out.println("* H2 cannot read an index backwards; check descending plans on MySQL or PostgreSQL.");
+        }
+        System.exit(allPass ? 0 : 1);
+    }
+
+    private static List<Check> checks(JdbcTemplate jdbcTemplate, int books) {
+        List<Check> checks = new ArrayList<>();
+        for (BookSort sort : BookSort.values()) {
+            for (Sort.Direction direction : Sort.Direction.values()) {
+                String orderBy = sort.toSort(direction).stream()
+                        .map(order -> order.getProperty() + " " + direction)
+                        .collect(Collectors.joining(", "));
+                String firstPage = "SELECT * FROM books ORDER BY " + orderBy + " LIMIT " + PAGE_SIZE;
+                checks.add(new Check("GET /api/books " + String.join(",", sort.fields()) + " "
+                        + direction.name().toLowerCase(), Expect.ORDERED, direction.isDescending(), firstPage,
+                        firstPage + " OFFSET " + books / 2));
+            }
+        }
+        long userId = jdbcTemplate.queryForObject("SELECT MIN(user_id) FROM orders", Long.class);
+        long orderId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM orders", Long.class);
+        long bookId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM books", Long.class);
+        String email = jdbcTemplate.queryForObject("SELECT MIN(email) FROM users", String.class);
+        String isbn = jdbcTemplate.queryForObject("SELECT MIN(isbn) FROM books", String.class);
+        String genreKey = jdbcTemplate.queryForObject("SELECT MIN(genre_key) FROM books", String.class);
+
+        checks.add(new Check("Order.findByUser", Expect.ORDERED, true,
+                "SELECT * FROM orders WHERE user_id = " + userId + " ORDER BY created_at DESC LIMIT 10", null));
+        checks.add(new Check("Order.findLatestByUser", Expect.ORDERED, true,
+                "SELECT * FROM orders WHERE user_id = " + userId + " ORDER BY created_at DESC, id DESC LIMIT 20",
+                null));
+        checks.add(new Check("Order.findLatest", Expect.ORDERED, true,
+                "SELECT * FROM orders ORDER BY created_at DESC, id DESC LIMIT 20", null));
+        checks.add(new Check("Order.findAll by totalAmount", Expect.ORDERED, true,
+                "SELECT * FROM orders ORDER BY total_amount DESC, id DESC LIMIT 10", null));
+        checks.add(new Check("Order.findByTotalAmountRange", Expect.INDEXED, false,
+                "SELECT * FROM orders WHERE total_amount >= 50 AND total_amount <= 51", null));
+        checks.add(new Check("Order.fetchItemsByIdIn", Expect.INDEXED, false,
+                "SELECT * FROM order_items WHERE order_id IN (" + orderId + ", " + (orderId + 1) + ")", null));
+        checks.add(new Check("order_items by book", Expect.INDEXED, false,
+                "SELECT * FROM order_items WHERE book_id = " + bookId, null));
+        checks.add(new Check("User.findByEmail", Expect.INDEXED, false,
+                "SELECT * FROM users WHERE email = '" + email + "'", null));
+        checks.add(new Check("Book.findIdsByIsbnIn", Expect.INDEXED, false,
+                "SELECT isbn, id FROM books WHERE isbn IN ('" + isbn + "')", null));
+        checks.add(new Check("Book genre filter", Expect.INDEXED, false,
+                "SELECT * FROM books WHERE genre_key = '" + genreKey + "'", null));
+        return checks;
+    }
+
+    // Reads the plan text, so the markers are whatever each database prints for a scan or a sort
+    private static String failure(String database, Expect expect, String plan) {
+        boolean tableScan;
+        boolean sorts;
+        switch (database) {
+            case "MySQL", "MariaDB" -> {
+                tableScan = plan.contains(" | ALL | ");
+                sorts = plan.contains("Using filesort");
+            }
+            case "PostgreSQL" -> {
+                tableScan = plan.contains("Seq Scan");
+                sorts = plan.contains("Sort Key");
+            }
+            case "H2" -> {
+                tableScan = plan.contains(".tableScan");
+                sorts = !plan.contains("index sorted");
+            }
+            default -> throw new IllegalStateException("No plan check for " + database);
+        }
+        if (tableScan) {
+            return "SCAN";
+        }
+        return expect == Expect.ORDERED && sorts ? "SORTS" : null;
+    }
+
+    // A few orders per seeded customer, two items each, spread over the last year
+    private static void seedOrders(JdbcTemplate jdbcTemplate, int orders) {
+        long firstUser = jdbcTemplate.queryForObject("SELECT MIN(id) FROM users", Long.class);
+        long users = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(orders);
+        for (int i = 0; i < orders; i++) {
+            rows.add(new Object[]{firstUser + i % users, Timestamp.valueOf(now.minusMinutes(i * 26L)),
+                    10 + i % 90, 2});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO orders (user_id, status, payment_status, created_at, total_amount, " +
+                "item_count, version) VALUES (?, 'DELIVERED', 'PAID', ?, ?, ?, 0)", rows);
+        long firstBook = jdbcTemplate.queryForObject("SELECT MIN(id) FROM books", Long.class);
+        long books = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM books", Long.class);
+        for (int item = 0; item < 2; item++) {
+            jdbcTemplate.update("INSERT INTO order_items (order_id, book_id, quantity, unit_price) " +
+                    "SELECT id, ? + MOD(id * ? + ?, ?), 1, 10.00 FROM orders", firstBook, 7 + item, item, books);
+        }
+    }
+
+    private static void analyze(JdbcTemplate jdbcTemplate, String database) {
+        switch (database) {
+            case "MySQL", "MariaDB" -> jdbcTemplate.execute("ANALYZE TABLE books, users, orders, order_items");
+            case "PostgreSQL" -> {
+                jdbcTemplate.execute("ANALYZE");
+                jdbcTemplate.execute("SET enable_seqscan = off");
+                jdbcTemplate.execute("SET enable_sort = off");
+            }
+            default -> jdbcTemplate.execute("ANALYZE");
+        }
+    }
+
+    // A different comment each run: H2 hands back the previous result for an identical query text
+    private static double meanMillis(JdbcTemplate jdbcTemplate, String sql, int iterations) {
+        for (int i = 0; i < iterations / 10 + 1; i++) {
+            jdbcTemplate.queryForList(sql + " /* warmup " + i + " */");
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            jdbcTemplate.queryForList(sql + " /* " + i + " */");
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / iterations;
+    }
+}
@@ -0,0 +1,193 @@
+package com.bookstore.loadtest;
+
+import com.bookstore.BookstoreApplication;
+import com.bookstore.config.LoadTestDataSeeder;
+import com.bookstore.datasource.ReplicaRoutingDataSource;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Routing check for the read replica against two database instances: the loadtest database as the
+ * primary and a second one as the replica. Nothing replicates between them; the runner copies the
+ * tables across when it wants the replica caught up, so every read shows which database served it.
+ * Checks, over HTTP:
+ * <ul>
+ *   <li>catalog listings read the replica, the cached book detail reads the primary</li>
+ *   <li>only bodies read from the primary carry the catalog ETag</li>
+ *   <li>right after checkout the customer's order history comes from the primary</li>
+ *   <li>once the read-your-writes window has passed it comes from the replica again</li>
+ * </ul>
+ * The replica defaults to a second in-memory H2 database, whose schema is copied from the primary.
+ * With replicaUrl=... pointing at MySQL or PostgreSQL the replica must already have the schema.
+ * Exits with status 1 if any check fails.
+ */
+public class ReplicaRunner {
+
+    private static final String H2_REPLICA_URL =
+            "jdbc:h2:mem:bookstore_replica;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    // Parents first; deleted in reverse
+    private static final List<String> TABLES = List.of("users", "books", "orders", "order_items");
+    private static final String MARK = " [replica]";
+
+    private static boolean allPass = true;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) {
+                options.put(arg.substring(0, eq), arg.substring(eq + 1));
+            }
+        }
+        String replicaUrl = options.getOrDefault("replicaUrl", H2_REPLICA_URL);
+        int replicaPoolSize = Integer.parseInt(options.getOrDefault("replicaPoolSize", "4"));
+        long maxLagMillis = Long.parseLong(options.getOrDefault("maxLagMillis", "1000"));
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BookstoreApplication.class)
+                .run("--spring.profiles.active=loadtest",
+                        "--bookstore.loadtest.books=" + options.getOrDefault("books", "2000"),
+                        "--bookstore.datasource.replica.enabled=true",
+                        "--bookstore.datasource.replica.url=" + replicaUrl,
+                        "--bookstore.datasource.replica.hikari.maximum-pool-size=" + replicaPoolSize,
+                        "--bookstore.datasource.replica.max-lag-millis=" + maxLagMillis);
+        try {
+            HikariDataSource primaryPool = context.getBean("primaryDataSource", HikariDataSource.class);
+            HikariDataSource replicaPool = context.getBean("replicaDataSource", HikariDataSource.class);
+            ReplicaRoutingDataSource routing = context.getBean(ReplicaRoutingDataSource.class);
+            JdbcTemplate primary = new JdbcTemplate(primaryPool);
+            // Its own connections: the replica pool is read-only
+            JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(replicaUrl,
+                    context.getEnvironment().getProperty("bookstore.datasource.replica.username"),
+                    context.getEnvironment().getProperty("bookstore.datasource.replica.password")));
+            long windowMillis = maxLagMillis + Long.parseLong(
+                    context.getEnvironment().getProperty("bookstore.datasource.replica.lag-check-millis", "500"));
+            check("pools sized separately (primary " + primaryPool.getMaximumPoolSize() + ", replica "
+                    + replicaPool.getMaximumPoolSize() + ")", replicaPool.getMaximumPoolSize() == replicaPoolSize);
+
+            if (replicaUrl.startsWith("jdbc:h2:")) {
+                primary.queryForList("SCRIPT NODATA", String.class).stream()
+                        .filter(sql -> sql.startsWith("ALTER")
+                                || sql.startsWith("CREATE") && !sql.startsWith("CREATE USER"))
+                        .forEach(replica::execute);
+            }
+            sync(primary, replica);
+            awaitUsable(routing);
+
+            HttpClient client = HttpClient.newHttpClient();
+            ObjectMapper objectMapper = new ObjectMapper();
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            Http http = new Http(client, objectMapper, baseUrl);
+
+            long bookId = primary.queryForObject("SELECT MIN(id) FROM books", Long.class);
+            replica.update("UPDATE books SET title = CONCAT(title, ?) WHERE id = ?", MARK, bookId);
+            JsonNode listing = http.get("/api/books?page=0&size=1&sortBy=id", null);
+            check("catalog listing reads the replica",
+                    listing.path("content").path(0).path("title").asText().endsWith(MARK));
+            JsonNode detail = http.get("/api/books/" + bookId, null);
+            check("cached book detail reads the primary", !detail.path("title").asText().endsWith(MARK));
+            check("listing read from the replica has no ETag", http.etag("/api/books?page=0&size=1&sortBy=id") == null);
+            check("book detail read from the primary has an ETag", http.etag("/api/books/" + bookId) != null);
+
+            String email = LoadTestDataSeeder.userEmail(0);
+            String password = context.getEnvironment().getProperty("bookstore.loadtest.password");
+            String token = http.post("/api/auth/login",
+                    "{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}", null).path("token").asText();
+            long inStock = primary.queryForObject("SELECT MIN(id) FROM books WHERE stock_quantity > 0", Long.class);
+            long before = http.get("/api/orders/my-orders", token).path("totalElements").asLong();
+            http.post("/api/orders", "{\"items\":[{\"bookId\":" + inStock + ",\"quantity\":1}]}", token);
+            check("order history right after checkout includes the order",
+                    http.get("/api/orders/my-orders", token).path("totalElements").asLong() == before + 1);
+            Thread.sleep(windowMillis + 200);
+            check("after " + windowMillis + " ms order history reads the replica again",
+                    http.get("/api/orders/my-orders", token).path("totalElements").asLong() == before);
+            sync(primary, replica);
+            check("the caught-up replica has the order",
+                    http.get("/api/orders/my-orders", token).path("totalElements").asLong() == before + 1);
+
+            System.out.printf("%nConnections: %d primary, %d replica, %d replica fallbacks%n",
+                    routing.primaryConnectionCount(), routing.replicaConnectionCount(), routing.replicaFallbackCount());
+        } finally {
+            context.close();
+        }
+        System.out.println(allPass ? "Reads are routed as expected." : "Some reads went to the wrong database.");
+        System.exit(allPass ? 0 : 1);
+    }
+
+    // Stands in for replication: the replica becomes a copy of the primary's tables
+    private static void sync(JdbcTemplate primary, JdbcTemplate replica) {
+        for (int i = TABLES.size() - 1; i >= 0; i--) {
+            replica.update("DELETE FROM " + TABLES.get(i));
+        }
+        for (String table : TABLES) {
+            List<Map<String, Object>> rows = primary.queryForList("SELECT * FROM " + table);
+            if (rows.isEmpty()) {
+                continue;
+            }
+            List<String> columns = new ArrayList<>(rows.get(0).keySet());
+            String sql = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ("
+                    + String.join(", ", columns.stream().map(column -> "?").toList()) + ")";
+            replica.batchUpdate(sql, rows.stream().map(row -> columns.stream().map(row::get).toArray()).toList());
+        }
+    }
+
+    private static void awaitUsable(ReplicaRoutingDataSource routing) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!routing.replicaUsable()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("Replica never passed the lag check");
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    private static void check(String name, boolean pass) {
+        allPass &= pass;
+        System.out.printf("%-60s %s%n", name, pass ? "ok" : "FAILED");
+    }
+
+    private record Http(HttpClient client, ObjectMapper objectMapper, String baseUrl) {
+
+        JsonNode get(String path, String token) throws Exception {
+            return send(request(path, token).GET().build());
+        }
+
+        String etag(String path) throws Exception {
+            HttpResponse<String> response = client.send(request(path, null).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            return response.headers().firstValue("ETag").orElse(null);
+        }
+
+        JsonNode post(String path, String body, String token) throws Exception {
+            return send(request(path, token).header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body)).build());
+        }
+
+        private HttpRequest.Builder request(String path, String token) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path));
+            return token == null ? builder : builder.header("Authorization", "Bearer " + token);
+        }
+
+        private JsonNode send(HttpRequest request) throws Exception {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() >= 300) {
+                throw new IllegalStateException(request.method() + " " + request.uri() + " returned "
+                        + response.statusCode() + ": " + response.body());
+            }
+            return objectMapper.readTree(response.body());
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.bookstore.loadtest;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+enum Scenario {
+    BROWSE,
+    DETAIL,
+    SEARCH,
+    LOGIN,
+    CHECKOUT;
+
+    // "browse=50,search=15,..." -> weights; omitted scenarios are not run
+    static Map<Scenario, Integer> parseMix(String mix) {
+        Map<Scenario, Integer> weights = new EnumMap<>(Scenario.class);
+        for (String part : mix.split(",")) {
+            String[] kv = part.trim().split("=");
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + part);
+            }
+            int weight = Integer.parseInt(kv[1].trim());
+            if (weight > 0) {
+                weights.put(Scenario.valueOf(kv[0].trim().toUpperCase(Locale.ROOT)), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Traffic mix is empty: " + mix);
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,172 @@
+package com.bookstore.loadtest;
+
+import com.bookstore.config.LoadTestDataSeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+// One closed-loop client: issues the next request as soon as the previous one completes
+class VirtualUser implements Runnable {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final String[] SORTS = {"title", "author", "price"};
+    private static final long SETUP_RETRY_MILLIS = 50;
+
+    private final int index;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper;
+    private final Workload workload;
+    private final Scenario[] wheel;
+    private final LoadReport report;
+    private final long deadline;
+    private String token;
+
+    VirtualUser(int index, HttpClient client, ObjectMapper objectMapper, Workload workload,
+                Map<Scenario, Integer> mix, LoadReport report, long deadline) {
+        this.index = index;
+        this.client = client;
+        this.objectMapper = objectMapper;
+        this.workload = workload;
+        this.report = report;
+        this.deadline = deadline;
+        List<Scenario> slots = new ArrayList<>();
+        mix.forEach((scenario, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                slots.add(scenario);
+            }
+        });
+        this.wheel = slots.toArray(new Scenario[0]);
+    }
+
+    @Override
+    public void run() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < deadline) {
+            Scenario scenario = wheel[random.nextInt(wheel.length)];
+            try {
+                if (scenario == Scenario.CHECKOUT && token == null) {
+                    token = sessionToken();
+                    if (token == null) {
+                        // A setup login turned away by the hashing queue is retried, not counted as a checkout
+                        Thread.sleep(SETUP_RETRY_MILLIS);
+                        continue;
+                    }
+                }
+                execute(scenario, random);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException e) {
+                report.recordFailure(scenario);
+            }
+        }
+    }
+
+    private void execute(Scenario scenario, ThreadLocalRandom random) throws IOException, InterruptedException {
+        switch (scenario) {
+            case BROWSE -> {
+                long pages = Math.max(1, Math.min(workload.bookCount() / 12, 50));
+                String url = "/api/books?page=" + random.nextLong(pages) + "&size=12&sortBy="
+                        + SORTS[random.nextInt(SORTS.length)] + (random.nextBoolean() ? "&sortDir=desc" : "");
+                if (!workload.genres().isEmpty() && random.nextInt(4) == 0) {
+                    url += "&genre=" + encode(workload.genres().get(random.nextInt(workload.genres().size())));
+                }
+                send(scenario, get(url));
+            }
+            case DETAIL -> send(scenario, get("/api/books/"
+                    + random.nextLong(workload.minBookId(), workload.maxBookId() + 1)));
+            case SEARCH -> {
+                String term = workload.searchTerms().isEmpty() ? "the"
+                        : workload.searchTerms().get(random.nextInt(workload.searchTerms().size()));
+                send(scenario, get("/api/books?page=0&size=12&search=" + encode(term)));
+            }
+            case LOGIN -> login(scenario);
+            case CHECKOUT -> {
+                StringBuilder items = new StringBuilder();
+                int lines = 1 + random.nextInt(3);
+                for (int i = 0; i < lines; i++) {
+                    long bookId = random.nextLong(workload.minBookId(), workload.maxBookId() + 1);
+                    items.append(i == 0 ? "" : ",").append("{\"bookId\":").append(bookId).append(",\"quantity\":1}");
+                }
+                HttpRequest request = request("/api/orders")
+                        .header("Content-Type", "application/json")
+                        .header("Authorization", "Bearer " + token)
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"items\":[" + items + "]}"))
+                        .build();
+                int status = send(scenario, request);
+                if (status == 401 || status == 403) {
+                    workload.tokens().remove(index % workload.users(), token);
+                    token = null;
+                }
+            }
+        }
+    }
+
+    // Logs in once per seeded user, so only the warmup pays for the BCrypt checks
+    private String sessionToken() throws IOException, InterruptedException {
+        int user = index % workload.users();
+        String cached = workload.tokens().get(user);
+        if (cached != null) {
+            return cached;
+        }
+        String fresh = login(null);
+        if (fresh != null) {
+            workload.tokens().put(user, fresh);
+        }
+        return fresh;
+    }
+
+    // Measured as LOGIN when scenario is set; otherwise a setup call that is not recorded
+    private String login(Scenario scenario) throws IOException, InterruptedException {
+        int user = scenario == null ? index % workload.users() : ThreadLocalRandom.current().nextInt(workload.users());
+        String body = "{\"email\":\"" + LoadTestDataSeeder.userEmail(user) + "\",\"password\":\""
+                + workload.password() + "\"}";
+        HttpRequest request = request("/api/auth/login")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        long start = System.nanoTime();
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (scenario != null) {
+            report.record(scenario, response.statusCode(), System.nanoTime() - start);
+        }
+        if (response.statusCode() != 200) {
+            // Already recorded (e.g. a 503 from the hashing executor); a busy setup login is retried
+            if (scenario != null || response.statusCode() == 503) {
+                return null;
+            }
+            throw new IllegalStateException("Login failed with " + response.statusCode());
+        }
+        return objectMapper.readTree(response.body()).path("token").asText();
+    }
+
+    private int send(Scenario scenario, HttpRequest request) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        report.record(scenario, response.statusCode(), System.nanoTime() - start);
+        return response.statusCode();
+    }
+
+    private HttpRequest get(String path) {
+        return request(path).GET().build();
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(workload.baseUrl() + path)).timeout(REQUEST_TIMEOUT);
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,62 @@
+package com.bookstore.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// What the virtual users draw from, discovered from the running application rather than assumed.
+// Session tokens per seeded user are kept across phases and concurrency levels.
+record Workload(String baseUrl, long minBookId, long maxBookId, long bookCount,
+                List<String> searchTerms, List<String> genres, int users, String password,
+                Map<Integer, String> tokens) {
+
+    private static final int SAMPLE_PAGES = 5;
+    private static final int SAMPLE_SIZE = 100;
+
+    static Workload discover(HttpClient client, ObjectMapper objectMapper, String baseUrl,
+                             int users, String password) throws IOException, InterruptedException {
+        JsonNode first = get(client, objectMapper, baseUrl + "/api/books?page=0&size=1&sortBy=id&sortDir=asc");
+        JsonNode last = get(client, objectMapper, baseUrl + "/api/books?page=0&size=1&sortBy=id&sortDir=desc");
+        long bookCount = first.path("totalElements").asLong();
+        if (bookCount == 0) {
+            throw new IllegalStateException("No books found at " + baseUrl + "; is the loadtest profile active?");
+        }
+
+        Set<String> terms = new TreeSet<>();
+        Set<String> genres = new TreeSet<>();
+        for (int page = 0; page < SAMPLE_PAGES; page++) {
+            JsonNode content = get(client, objectMapper,
+                    baseUrl + "/api/books?page=" + page + "&size=" + SAMPLE_SIZE + "&sortBy=id").path("content");
+            for (JsonNode book : content) {
+                for (String word : book.path("title").asText().split("[^\\p{L}]+")) {
+                    if (word.length() >= 4) {
+                        terms.add(word.toLowerCase(Locale.ROOT));
+                    }
+                }
+                if (book.hasNonNull("genre")) {
+                    genres.add(book.get("genre").asText());
+                }
+            }
+        }
+        return new Workload(baseUrl, first.path("content").get(0).path("id").asLong(),
+                last.path("content").get(0).path("id").asLong(), bookCount,
+                List.copyOf(terms), List.copyOf(genres), users, password, new ConcurrentHashMap<>());
+    }
+
+    private static JsonNode get(HttpClient client, ObjectMapper objectMapper, String url)
+            throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(URI.create(url)).GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET " + url + " returned " + response.statusCode());
+        }
+        return objectMapper.readTree(response.body());
+    }
+}
@@ -0,0 +1,146 @@
+package com.bookstore.cache;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+// Size-bounded LRU cache whose entries also expire after a TTL
+public class BoundedTtlCache<K, V> {
+
+    private final String name;
+    private final int maxSize;
+    private final long ttlMillis;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    // A lock rather than a monitor: virtual threads blocked on a monitor pin their carrier (JDK 21)
+    private final ReentrantLock lock = new ReentrantLock();
+    // Bumped under the lock by every invalidation, so a load that raced one is not cached
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public BoundedTtlCache(String name, int maxSize, long ttlMillis) {
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public V get(K key) {
+        long now = System.currentTimeMillis();
+        lock.lock();
+        try {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.expiresAt > now) {
+                hits.increment();
+                return entry.value;
+            }
+            if (entry != null) {
+                entries.remove(key);
+                evictions.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+        misses.increment();
+        return null;
+    }
+
+    // The loader runs outside the lock since it usually blocks on the database. Its result is
+    // returned but not cached when an invalidation ran meanwhile: it may predate that write.
+    public V getOrLoad(K key, Function<K, V> loader) {
+        V value = get(key);
+        if (value == null) {
+            long generation = invalidations.get();
+            value = loader.apply(key);
+            put(key, value, System.currentTimeMillis() + ttlMillis, generation);
+        }
+        return value;
+    }
+
+    public void put(K key, V value) {
+        put(key, value, System.currentTimeMillis() + ttlMillis);
+    }
+
+    public void put(K key, V value, long expiresAt) {
+        put(key, value, expiresAt, -1L);
+    }
+
+    // A generation of -1 stores unconditionally
+    private void put(K key, V value, long expiresAt, long generation) {
+        if (value == null || maxSize <= 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (generation >= 0 && generation != invalidations.get()) {
+                return;
+            }
+            entries.put(key, new Entry<>(value, expiresAt));
+            Iterator<Map.Entry<K, Entry<V>>> eldest = entries.entrySet().iterator();
+            while (entries.size() > maxSize && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+                evictions.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Invalidates now and, inside a transaction, again once it commits so a
+    // concurrent read cannot re-populate the entry with pre-commit data
+    public void invalidate(K key) {
+        remove(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(key);
+                }
+            });
+        }
+    }
+
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            entries.clear();
+            invalidations.incrementAndGet();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void remove(K key) {
+        lock.lock();
+        try {
+            entries.remove(key);
+            invalidations.incrementAndGet();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public CacheStats stats() {
+        int size;
+        lock.lock();
+        try {
+            size = entries.size();
+        } finally {
+            lock.unlock();
+        }
+        return new CacheStats(name, size, maxSize, hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
@@ -0,0 +1,9 @@
+package com.bookstore.cache;
+
+public record CacheStats(String name, int size, int maxSize, long hits, long misses, long evictions) {
+
+    public double hitRatio() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+}
@@ -0,0 +1,262 @@
+package com.bookstore.catalog;
+
+import com.bookstore.dto.BookDto;
+import com.bookstore.model.Book;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Column-per-field copy of the whole catalog, rows ordered by id, with one precomputed row order per
+ * sortable field. Title and author orders are read from the database, so a page follows its collation
+ * exactly like the query it stands in for. Everything but stock and version is immutable; those two
+ * are patched in place as orders commit, so checkouts do not force a rebuild.
+ */
+public final class CatalogSnapshot {
+
+    private final long generation;
+    private final long[] ids;
+    private final String[] titles;
+    private final String[] authors;
+    private final String[] genres;
+    private final String[] isbns;
+    private final String[] descriptions;
+    private final String[] imageUrls;
+    // Prices are stored with the column's scale of 2 as unscaled longs
+    private final long[] priceCents;
+    private final AtomicIntegerArray stock;
+    private final AtomicLongArray versions;
+    // Makes a patch's version check and its two writes one step
+    private final ReentrantLock patchLock = new ReentrantLock();
+    // Null when the database order did not cover every row; such sorts go to the database
+    private final int[] byTitle;
+    private final int[] byAuthor;
+    private final int[] byPrice;
+    private final long estimatedBytes;
+
+    private CatalogSnapshot(Builder builder, long generation) {
+        int size = builder.size;
+        this.generation = generation;
+        this.ids = Arrays.copyOf(builder.ids, size);
+        this.titles = Arrays.copyOf(builder.titles, size);
+        this.authors = Arrays.copyOf(builder.authors, size);
+        this.genres = Arrays.copyOf(builder.genres, size);
+        this.isbns = Arrays.copyOf(builder.isbns, size);
+        this.descriptions = Arrays.copyOf(builder.descriptions, size);
+        this.imageUrls = Arrays.copyOf(builder.imageUrls, size);
+        this.priceCents = Arrays.copyOf(builder.priceCents, size);
+        this.stock = new AtomicIntegerArray(Arrays.copyOf(builder.stock, size));
+        this.versions = new AtomicLongArray(Arrays.copyOf(builder.versions, size));
+        this.byTitle = rowsOf(builder.collatedOrders.get("title"));
+        this.byAuthor = rowsOf(builder.collatedOrders.get("author"));
+        this.byPrice = orderByPrice(priceCents);
+        // Per book: 6 string references, 3 longs, the stock int and 3 row orders; plus the strings
+        this.estimatedBytes = (long) size * (6 * 4 + 3 * 8 + 4 + 3 * 4) + builder.stringBytes;
+    }
+
+    public long generation() {
+        return generation;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public long estimatedBytes() {
+        return estimatedBytes;
+    }
+
+    /**
+     * One page in the given order, or empty when the field has no row order here. Descending pages
+     * read the ascending order backwards, so equal keys come out in descending id order.
+     */
+    public Optional<List<BookDto.BookResponse>> page(String sortField, boolean ascending, long offset, int size) {
+        int[] rows = rowOrder(sortField);
+        if (rows == null && !sortField.equals("id")) {
+            return Optional.empty();
+        }
+        int total = ids.length;
+        List<BookDto.BookResponse> content = new ArrayList<>(size);
+        for (long i = offset; i < offset + size && i < total; i++) {
+            int position = (int) (ascending ? i : total - 1 - i);
+            content.add(toResponse(rows == null ? position : rows[position]));
+        }
+        return Optional.of(content);
+    }
+
+    // Applied only when newer than what the row holds, so late callbacks cannot roll a row back
+    public void stockChanged(Long bookId, int stockQuantity, long version) {
+        int row = Arrays.binarySearch(ids, bookId);
+        if (row < 0) {
+            return;
+        }
+        patchLock.lock();
+        try {
+            if (version >= versions.get(row)) {
+                versions.set(row, version);
+                stock.set(row, stockQuantity);
+            }
+        } finally {
+            patchLock.unlock();
+        }
+    }
+
+    private int[] rowOrder(String sortField) {
+        return switch (sortField) {
+            case "title" -> byTitle;
+            case "author" -> byAuthor;
+            case "price" -> byPrice;
+            default -> null;
+        };
+    }
+
+    private BookDto.BookResponse toResponse(int row) {
+        BookDto.BookResponse response = new BookDto.BookResponse();
+        response.setId(ids[row]);
+        response.setTitle(titles[row]);
+        response.setAuthor(authors[row]);
+        response.setGenre(genres[row]);
+        response.setIsbn(isbns[row]);
+        response.setPrice(BigDecimal.valueOf(priceCents[row], 2));
+        response.setDescription(descriptions[row]);
+        response.setStockQuantity(stock.get(row));
+        response.setImageUrl(imageUrls[row]);
+        response.setVersion(versions.get(row));
+        return response;
+    }
+
+    // Ids in database order to rows; null unless every row appears exactly once, e.g. when a book was
+    // added or removed between the reads
+    private int[] rowsOf(long[] orderedIds) {
+        if (orderedIds == null || orderedIds.length != ids.length) {
+            return null;
+        }
+        int[] rows = new int[orderedIds.length];
+        boolean[] seen = new boolean[ids.length];
+        for (int i = 0; i < orderedIds.length; i++) {
+            int row = Arrays.binarySearch(ids, orderedIds[i]);
+            if (row < 0 || seen[row]) {
+                return null;
+            }
+            seen[row] = true;
+            rows[i] = row;
+        }
+        return rows;
+    }
+
+    // Price in the high half and row in the low half, so a primitive sort also breaks ties by row.
+    // Prices past Integer.MAX_VALUE cents fall back to the boxed sort
+    private static int[] orderByPrice(long[] priceCents) {
+        int size = priceCents.length;
+        if (Arrays.stream(priceCents).anyMatch(cents -> cents < 0 || cents > Integer.MAX_VALUE)) {
+            return order(size, Comparator.comparingLong(row -> priceCents[row]));
+        }
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = priceCents[i] << 32 | i;
+        }
+        Arrays.parallelSort(keys);
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = (int) keys[i];
+        }
+        return order;
+    }
+
+    // Rows are already in id order, and parallelSort is stable, so equal keys stay in ascending id order
+    private static int[] order(int size, Comparator<Integer> comparator) {
+        Integer[] rows = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            rows[i] = i;
+        }
+        Arrays.parallelSort(rows, comparator);
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = rows[i];
+        }
+        return order;
+    }
+
+    // Collects books in ascending id order; authors, genres and image URLs repeat a lot and are stored once
+    public static final class Builder {
+        private final Map<String, String> strings = new HashMap<>();
+        private final Map<String, long[]> collatedOrders = new HashMap<>();
+        private long stringBytes;
+        private int size;
+        private long[] ids = new long[1024];
+        private String[] titles = new String[1024];
+        private String[] authors = new String[1024];
+        private String[] genres = new String[1024];
+        private String[] isbns = new String[1024];
+        private String[] descriptions = new String[1024];
+        private String[] imageUrls = new String[1024];
+        private long[] priceCents = new long[1024];
+        private int[] stock = new int[1024];
+        private long[] versions = new long[1024];
+
+        public Builder add(Book book) {
+            if (size > 0 && book.getId() <= ids[size - 1]) {
+                throw new IllegalArgumentException("Books must be added in ascending id order");
+            }
+            if (size == ids.length) {
+                grow();
+            }
+            ids[size] = book.getId();
+            titles[size] = counted(book.getTitle());
+            authors[size] = canonical(book.getAuthor());
+            genres[size] = canonical(book.getGenre());
+            isbns[size] = counted(book.getIsbn());
+            descriptions[size] = counted(book.getDescription());
+            imageUrls[size] = canonical(book.getImageUrl());
+            priceCents[size] = book.getPrice().setScale(2).unscaledValue().longValueExact();
+            stock[size] = book.getStockQuantity();
+            versions[size] = book.getVersion() == null ? 0 : book.getVersion();
+            size++;
+            return this;
+        }
+
+        // All ids in the database's ascending order for "title" or "author", ties by ascending id
+        public Builder collatedOrder(String field, long[] idsInOrder) {
+            collatedOrders.put(field, idsInOrder);
+            return this;
+        }
+
+        public CatalogSnapshot build(long generation) {
+            return new CatalogSnapshot(this, generation);
+        }
+
+        private String canonical(String value) {
+            if (value == null) {
+                return null;
+            }
+            String existing = strings.putIfAbsent(value, value);
+            return existing != null ? existing : counted(value);
+        }
+
+        private String counted(String value) {
+            if (value != null) {
+                // String object, array header and one byte per Latin-1 char (two otherwise)
+                boolean latin1 = value.chars().allMatch(c -> c < 256);
+                stringBytes += 24 + 16 + (long) value.length() * (latin1 ? 1 : 2);
+            }
+            return value;
+        }
+
+        private void grow() {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            titles = Arrays.copyOf(titles, capacity);
+            authors = Arrays.copyOf(authors, capacity);
+            genres = Arrays.copyOf(genres, capacity);
+            isbns = Arrays.copyOf(isbns, capacity);
+            descriptions = Arrays.copyOf(descriptions, capacity);
+            imageUrls = Arrays.copyOf(imageUrls, capacity);
+            priceCents = Arrays.copyOf(priceCents, capacity);
+            stock = Arrays.copyOf(stock, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+        }
+    }
+}
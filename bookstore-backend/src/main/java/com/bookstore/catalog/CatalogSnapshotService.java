@@ -0,0 +1,220 @@
+package com.bookstore.catalog;
+
+import com.bookstore.dto.BookDto;
+import com.bookstore.metrics.LatencyTimer;
+import com.bookstore.metrics.MetricsRegistry;
+import com.bookstore.model.Book;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.BookSort;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.*;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Opt-in {@link CatalogSnapshot} for unfiltered GET /api/books listings. Every catalog write bumps a
+ * generation and queues a background rebuild; until the rebuilt snapshot is swapped in, listings go
+ * to the database, so an admin never sees their own change missing. Stock changes from orders are
+ * patched into the live snapshot instead of rebuilding it.
+ */
+@Component
+@Slf4j
+public class CatalogSnapshotService {
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final BookRepository bookRepository;
+    private final boolean enabled;
+    private final ExecutorService rebuilder;
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+    private final AtomicLong writeGeneration = new AtomicLong();
+    private volatile CatalogSnapshot current;
+    // Guards patchesDuringRebuild and the swap of current
+    private final ReentrantLock lock = new ReentrantLock();
+    // Stock patches seen while a rebuild is reading the catalog, replayed before the swap
+    private Map<Long, long[]> patchesDuringRebuild;
+
+    private final LatencyTimer rebuildTimer;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public CatalogSnapshotService(BookRepository bookRepository,
+                                  MetricsRegistry metricsRegistry,
+                                  @Value("${bookstore.catalog.snapshot.enabled:false}") boolean enabled) {
+        this.bookRepository = bookRepository;
+        this.enabled = enabled;
+        this.rebuilder = enabled ? Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        this.rebuildTimer = metricsRegistry.timer("catalog_snapshot_rebuild_seconds", "Time to rebuild the catalog snapshot");
+        metricsRegistry.gauge("catalog_snapshot_books", "Books in the live catalog snapshot",
+                () -> current == null ? 0 : current.size());
+        metricsRegistry.gauge("catalog_snapshot_bytes", "Estimated heap held by the catalog snapshot",
+                () -> current == null ? 0 : current.estimatedBytes());
+        metricsRegistry.gauge("catalog_snapshot_hits_total", "Listings served from the snapshot", hits::sum);
+        metricsRegistry.gauge("catalog_snapshot_misses_total", "Listings sent to the database while stale",
+                misses::sum);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        requestRebuild();
+    }
+
+    // Call after the write has committed
+    public void catalogChanged() {
+        markStale();
+        requestRebuild();
+    }
+
+    // Sends listings to the database without a rebuild, for bulk writes that end with catalogChanged()
+    public void markStale() {
+        if (enabled) {
+            writeGeneration.incrementAndGet();
+        }
+    }
+
+    // Inside a transaction the patch is applied after commit, so a rolled-back order leaves no trace
+    public void stockChanged(Long bookId, int stockQuantity, long version) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyStock(bookId, stockQuantity, version);
+                }
+            });
+        } else {
+            applyStock(bookId, stockQuantity, version);
+        }
+    }
+
+    /**
+     * The requested page from memory, or empty when the snapshot is off, stale or cannot serve the
+     * sort. Snapshot row orders break ties by id in the sort's direction, which matches the single
+     * field sorts in {@link BookSort}.
+     */
+    public Optional<Page<BookDto.BookResponse>> page(Pageable pageable) {
+        CatalogSnapshot snapshot = current;
+        if (snapshot == null || snapshot.generation() != writeGeneration.get()) {
+            if (enabled) {
+                misses.increment();
+            }
+            return Optional.empty();
+        }
+        Sort requested = pageable.getSort();
+        Sort.Order order = requested.isSorted() ? requested.toList().get(0) : Sort.Order.asc("id");
+        boolean servable = BookSort.of(order.getProperty())
+                .filter(sort -> requested.isUnsorted() || sort.toSort(order.getDirection()).equals(requested))
+                .isPresent();
+        if (!servable) {
+            return Optional.empty();
+        }
+        Optional<Page<BookDto.BookResponse>> page = snapshot
+                .page(order.getProperty(), order.isAscending(), pageable.getOffset(), pageable.getPageSize())
+                .map(content -> new PageImpl<>(content, pageable, snapshot.size()));
+        page.ifPresent(served -> hits.increment());
+        return page;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (rebuilder != null) {
+            rebuilder.shutdownNow();
+        }
+    }
+
+    private void applyStock(Long bookId, int stockQuantity, long version) {
+        lock.lock();
+        try {
+            CatalogSnapshot snapshot = current;
+            if (snapshot != null) {
+                snapshot.stockChanged(bookId, stockQuantity, version);
+            }
+            if (patchesDuringRebuild != null) {
+                patchesDuringRebuild.merge(bookId, new long[]{stockQuantity, version},
+                        (previous, latest) -> latest[1] >= previous[1] ? latest : previous);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void requestRebuild() {
+        if (enabled && rebuildQueued.compareAndSet(false, true)) {
+            rebuilder.execute(this::rebuild);
+        }
+    }
+
+    private void rebuild() {
+        // Writes from here on queue another rebuild, and this one is built for the generation it saw
+        rebuildQueued.set(false);
+        long generation = writeGeneration.get();
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            patchesDuringRebuild = new HashMap<>();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            CatalogSnapshot.Builder builder = new CatalogSnapshot.Builder();
+            long lastId = 0L;
+            Slice<Book> batch;
+            do {
+                batch = bookRepository.findByIdGreaterThan(lastId,
+                        PageRequest.of(0, REBUILD_BATCH_SIZE, Sort.by("id")));
+                for (Book book : batch) {
+                    builder.add(book);
+                    lastId = book.getId();
+                }
+            } while (batch.hasNext());
+            // Text orders come from the database's collation, the one the fallback query sorts by
+            for (BookSort sort : new BookSort[]{BookSort.TITLE, BookSort.AUTHOR}) {
+                builder.collatedOrder(sort.key(), bookRepository.findIds(sort.toSort(Sort.Direction.ASC))
+                        .stream().mapToLong(Long::longValue).toArray());
+            }
+            CatalogSnapshot snapshot = builder.build(generation);
+            lock.lock();
+            try {
+                patchesDuringRebuild.forEach((bookId, patch) ->
+                        snapshot.stockChanged(bookId, (int) patch[0], patch[1]));
+                current = snapshot;
+            } finally {
+                lock.unlock();
+            }
+            rebuildTimer.record(System.nanoTime() - start);
+            log.info("Catalog snapshot built for {} books (~{} MB) in {} ms", snapshot.size(),
+                    snapshot.estimatedBytes() / (1024 * 1024), (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            // The previous snapshot stays stale, so listings keep going to the database
+            log.warn("Catalog snapshot rebuild failed: {}", e.getMessage());
+        } finally {
+            lock.lock();
+            try {
+                patchesDuringRebuild = null;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.bookstore.config;
+
+import com.bookstore.cache.BoundedTtlCache;
+import com.bookstore.dto.BookDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    public BoundedTtlCache<Long, BookDto.BookResponse> bookResponseCache(
+            @Value("${bookstore.cache.books.max-size:10000}") int maxSize,
+            @Value("${bookstore.cache.books.ttl-seconds:300}") long ttlSeconds) {
+        return new BoundedTtlCache<>("books", maxSize, ttlSeconds * 1000);
+    }
+}
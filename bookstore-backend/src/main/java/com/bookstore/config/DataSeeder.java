@@ -4,6 +4,7 @@ import com.bookstore.model.Book;
 import com.bookstore.model.User;
 import com.bookstore.repository.BookRepository;
 import com.bookstore.repository.UserRepository;
+import com.bookstore.security.PrincipalCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
@@ -21,6 +22,7 @@ public class DataSeeder implements CommandLineRunner {
     private final UserRepository userRepository;
     private final BookRepository bookRepository;
     private final PasswordEncoder passwordEncoder;
+    private final PrincipalCache principalCache;
 
     @Override
     public void run(String... args) {
@@ -50,6 +52,7 @@ public class DataSeeder implements CommandLineRunner {
             user.setRole(role);
         }
         userRepository.save(user);
+        principalCache.invalidate(email);
     }
 
     private void seedBooks() {
@@ -0,0 +1,48 @@
+package com.bookstore.config;
+
+import com.bookstore.model.Book;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+// Fills genre_key for books stored before it existed, in id order and chunks of CHUNK_SIZE rows
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GenreKeyBackfill implements CommandLineRunner {
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final String SELECT_SQL =
+            "SELECT id, genre FROM books WHERE genre IS NOT NULL AND genre_key IS NULL AND id > ? ORDER BY id LIMIT "
+                    + CHUNK_SIZE;
+    private static final String UPDATE_SQL = "UPDATE books SET genre_key = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void run(String... args) {
+        long lastId = 0;
+        long updated = 0;
+        List<Object[]> chunk;
+        do {
+            chunk = jdbcTemplate.query(SELECT_SQL, (rs, rowNum) ->
+                    new Object[]{Book.genreKeyOf(rs.getString("genre")), rs.getLong("id")}, lastId);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            List<Object[]> rows = chunk;
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPDATE_SQL, rows));
+            lastId = (Long) chunk.get(chunk.size() - 1)[1];
+            updated += chunk.size();
+        } while (chunk.size() == CHUNK_SIZE);
+        if (updated > 0) {
+            log.info("Backfilled genre keys for {} books", updated);
+        }
+    }
+}
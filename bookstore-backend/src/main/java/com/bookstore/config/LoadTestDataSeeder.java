@@ -0,0 +1,136 @@
+package com.bookstore.config;
+
+import com.bookstore.model.Book;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Seeds a large synthetic catalog and customer base for the load-test harness (see LOAD_TESTING.md)
+@Component
+@Profile("loadtest")
+@Order(100)
+@Slf4j
+public class LoadTestDataSeeder implements CommandLineRunner {
+
+    private static final String INSERT_BOOK_SQL =
+            "INSERT INTO books (title, author, genre, isbn, price, description, stock_quantity, image_url, genre_key, " +
+            "version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+    private static final String INSERT_USER_SQL =
+            "INSERT INTO users (name, email, password, role) VALUES (?, ?, ?, 'CUSTOMER')";
+
+    private static final String[] ADJECTIVES = {"Silent", "Crimson", "Hidden", "Broken", "Golden", "Last",
+            "Endless", "Frozen", "Distant", "Wild", "Secret", "Burning", "Quiet", "Lost", "Electric", "Ancient"};
+    private static final String[] NOUNS = {"River", "Empire", "Garden", "Algorithm", "Kingdom", "Voyage",
+            "Harbor", "Machine", "Forest", "Letter", "Horizon", "Library", "Storm", "Compass", "Mirror", "Signal"};
+    private static final String[] AUTHORS = {"Ada Park", "Liam Chen", "Maya Singh", "Noah Ferreira",
+            "Olivia Novak", "Ravi Kumar", "Sofia Rossi", "Tomas Berg", "Yara Haddad", "Kenji Sato"};
+    private static final String[] GENRES = {"Fiction", "Fantasy", "Science Fiction", "Thriller", "Classic Fiction",
+            "Non-Fiction", "Technology", "Business", "Self-Help", "Dystopian Fiction"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BookRepository bookRepository;
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final int bookCount;
+    private final int userCount;
+    private final String userPassword;
+    private final int batchSize;
+
+    public LoadTestDataSeeder(JdbcTemplate jdbcTemplate,
+                              BookRepository bookRepository,
+                              UserRepository userRepository,
+                              PasswordEncoder passwordEncoder,
+                              @Value("${bookstore.loadtest.books:10000}") int bookCount,
+                              @Value("${bookstore.loadtest.users:200}") int userCount,
+                              @Value("${bookstore.loadtest.password:loadtest123}") String userPassword,
+                              @Value("${bookstore.import.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.bookRepository = bookRepository;
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.bookCount = bookCount;
+        this.userCount = userCount;
+        this.userPassword = userPassword;
+        this.batchSize = batchSize;
+    }
+
+    public static String userEmail(int index) {
+        return "loadtest-user-" + index + "@bookstore.com";
+    }
+
+    @Override
+    public void run(String... args) {
+        long start = System.nanoTime();
+        seedBooks();
+        seedUsers();
+        log.info("Load-test data ready in {} ms: {} books, {} users",
+                (System.nanoTime() - start) / 1_000_000, bookRepository.count(), userRepository.count());
+    }
+
+    private void seedBooks() {
+        long existing = bookRepository.count();
+        if (existing >= bookCount) {
+            return;
+        }
+        // Fixed seed so every run gets the same catalog
+        Random random = new Random(42);
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        for (long i = existing; i < bookCount; i++) {
+            String title = ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " "
+                    + NOUNS[random.nextInt(NOUNS.length)] + " " + (i + 1);
+            String genre = GENRES[random.nextInt(GENRES.length)];
+            batch.add(new Object[]{
+                    title,
+                    AUTHORS[random.nextInt(AUTHORS.length)],
+                    genre,
+                    String.format("LT-%010d", i),
+                    BigDecimal.valueOf(499 + random.nextInt(5000), 2),
+                    "Synthetic load-test title " + (i + 1),
+                    1_000_000,
+                    null,
+                    Book.genreKeyOf(genre)
+            });
+            if (batch.size() == batchSize) {
+                jdbcTemplate.batchUpdate(INSERT_BOOK_SQL, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_BOOK_SQL, batch);
+        }
+    }
+
+    private void seedUsers() {
+        if (userRepository.existsByEmail(userEmail(userCount - 1))) {
+            return;
+        }
+        // One BCrypt hash shared by every synthetic user; hashing M passwords would dominate startup
+        String hash = passwordEncoder.encode(userPassword);
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < userCount; i++) {
+            if (userRepository.existsByEmail(userEmail(i))) {
+                continue;
+            }
+            batch.add(new Object[]{"Load Test User " + i, userEmail(i), hash});
+            if (batch.size() == batchSize) {
+                jdbcTemplate.batchUpdate(INSERT_USER_SQL, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_USER_SQL, batch);
+        }
+    }
+}
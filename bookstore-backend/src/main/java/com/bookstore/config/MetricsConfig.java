@@ -0,0 +1,151 @@
+package com.bookstore.config;
+
+import com.bookstore.cache.CacheStats;
+import com.bookstore.cache.BoundedTtlCache;
+import com.bookstore.datasource.ReplicaLagMonitor;
+import com.bookstore.datasource.ReplicaRoutingDataSource;
+import com.bookstore.dto.BookDto;
+import com.bookstore.metrics.MetricsRegistry;
+import com.bookstore.metrics.RepositoryMetricsListener;
+import com.bookstore.metrics.RequestMetricsInterceptor;
+import com.bookstore.security.JwtUtil;
+import com.bookstore.security.PasswordHashingExecutor;
+import com.bookstore.service.OptimisticRetry;
+import com.bookstore.security.PrincipalCache;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private final MetricsRegistry metricsRegistry;
+
+    public MetricsConfig(MetricsRegistry metricsRegistry,
+                         ObjectProvider<HikariDataSource> pools,
+                         ObjectProvider<ReplicaRoutingDataSource> replicaRouting,
+                         ObjectProvider<ReplicaLagMonitor> replicaLagMonitor,
+                         BoundedTtlCache<Long, BookDto.BookResponse> bookResponseCache,
+                         PrincipalCache principalCache,
+                         JwtUtil jwtUtil,
+                         PasswordHashingExecutor passwordHashingExecutor,
+                         OptimisticRetry optimisticRetry) {
+        this.metricsRegistry = metricsRegistry;
+        pools.orderedStream().forEach(this::registerPoolGauges);
+        replicaRouting.ifAvailable(this::registerRoutingGauges);
+        replicaLagMonitor.ifAvailable(monitor -> metricsRegistry.gauge("datasource_replica_lag_millis",
+                "Replica lag at the last check, -1 when unknown", monitor::lagMillis));
+        registerJvmGauges();
+        registerHashingGauges(passwordHashingExecutor);
+        metricsRegistry.gauge("optimistic_lock_retries_total", "Updates re-run after losing a version check",
+                optimisticRetry::retryCount);
+        metricsRegistry.gauge("optimistic_lock_conflicts_total", "Updates rejected with 409 after exhausting retries",
+                optimisticRetry::conflictCount);
+        registerCacheGauges(bookResponseCache::stats);
+        registerCacheGauges(principalCache::stats);
+        registerCacheGauges(jwtUtil::claimsCacheStats);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RequestMetricsInterceptor(metricsRegistry));
+    }
+
+    // Static so repository factory beans are customized before they create their proxies
+    @Bean
+    public static BeanPostProcessor repositoryMetricsPostProcessor(ObjectProvider<MetricsRegistry> metricsRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory ->
+                            factory.addInvocationListener(new RepositoryMetricsListener(metricsRegistry.getObject())));
+                }
+                return bean;
+            }
+        };
+    }
+
+    // One set per pool: the single default pool, or primary and replica when reads are routed
+    private void registerPoolGauges(HikariDataSource hikari) {
+        String pool = String.valueOf(hikari.getPoolName());
+        poolGauge(hikari, pool, "hikaricp_connections_active", "Connections in use", HikariPoolMXBean::getActiveConnections);
+        poolGauge(hikari, pool, "hikaricp_connections_idle", "Idle connections", HikariPoolMXBean::getIdleConnections);
+        poolGauge(hikari, pool, "hikaricp_connections", "Total connections", HikariPoolMXBean::getTotalConnections);
+        poolGauge(hikari, pool, "hikaricp_connections_pending", "Threads waiting for a connection",
+                HikariPoolMXBean::getThreadsAwaitingConnection);
+        metricsRegistry.gauge("hikaricp_connections_max", "Maximum pool size", hikari::getMaximumPoolSize,
+                "pool", pool);
+    }
+
+    private void registerRoutingGauges(ReplicaRoutingDataSource routing) {
+        metricsRegistry.gauge("datasource_connections_routed_total", "Connections handed out per database",
+                routing::primaryConnectionCount, "route", "primary");
+        metricsRegistry.gauge("datasource_connections_routed_total", "Connections handed out per database",
+                routing::replicaConnectionCount, "route", "replica");
+        metricsRegistry.gauge("datasource_replica_fallbacks_total", "Replica reads sent to the primary after a "
+                + "failed replica connection", routing::replicaFallbackCount);
+        metricsRegistry.gauge("datasource_replica_usable", "1 while the replica is within its lag bound",
+                () -> routing.replicaUsable() ? 1 : 0);
+    }
+
+    // The pool MXBean only exists once the pool has started, so it is looked up on every scrape
+    private void poolGauge(HikariDataSource hikari, String pool, String name, String help,
+                           ToIntFunction<HikariPoolMXBean> value) {
+        metricsRegistry.gauge(name, help, () -> {
+            HikariPoolMXBean mxBean = hikari.getHikariPoolMXBean();
+            return mxBean == null ? 0 : value.applyAsInt(mxBean);
+        }, "pool", pool);
+    }
+
+    // Platform threads only: virtual threads are not reported by the thread MXBean
+    private void registerJvmGauges() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        metricsRegistry.gauge("jvm_threads_live", "Live platform threads", threads::getThreadCount);
+        metricsRegistry.gauge("jvm_threads_peak", "Peak live platform threads", threads::getPeakThreadCount);
+        metricsRegistry.gauge("jvm_threads_daemon", "Live daemon threads", threads::getDaemonThreadCount);
+        metricsRegistry.gauge("jvm_memory_used_bytes", "Used memory", () -> memory.getHeapMemoryUsage().getUsed(),
+                "area", "heap");
+        metricsRegistry.gauge("jvm_memory_committed_bytes", "Committed heap",
+                () -> memory.getHeapMemoryUsage().getCommitted(), "area", "heap");
+        metricsRegistry.gauge("jvm_memory_used_bytes", "Used memory",
+                () -> memory.getNonHeapMemoryUsage().getUsed(), "area", "nonheap");
+    }
+
+    private void registerHashingGauges(PasswordHashingExecutor executor) {
+        metricsRegistry.gauge("password_hashing_threads", "Hashing pool size", executor::poolSize);
+        metricsRegistry.gauge("password_hashing_active", "Hashing threads busy", executor::activeCount);
+        metricsRegistry.gauge("password_hashing_queued", "Auth requests waiting for a hashing thread",
+                executor::queueSize);
+        metricsRegistry.gauge("password_hashing_completed_total", "Auth tasks completed", executor::completedCount);
+        metricsRegistry.gauge("password_hashing_rejected_total", "Auth requests rejected with 503",
+                executor::rejectedCount);
+    }
+
+    private void registerCacheGauges(Supplier<CacheStats> stats) {
+        String cache = stats.get().name();
+        cacheGauge(stats, cache, "cache_hits_total", "Cache hits", CacheStats::hits);
+        cacheGauge(stats, cache, "cache_misses_total", "Cache misses", CacheStats::misses);
+        cacheGauge(stats, cache, "cache_evictions_total", "Cache evictions", CacheStats::evictions);
+        cacheGauge(stats, cache, "cache_size", "Cache entries", CacheStats::size);
+    }
+
+    private void cacheGauge(Supplier<CacheStats> stats, String cache, String name, String help,
+                            Function<CacheStats, Number> value) {
+        metricsRegistry.gauge(name, help, () -> value.apply(stats.get()), "cache", cache);
+    }
+}
@@ -0,0 +1,40 @@
+package com.bookstore.config;
+
+import com.bookstore.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Fills totalAmount/itemCount for orders placed before they were stored, in id-range chunks.
+// Once every order has its total, a startup costs one index lookup
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderTotalsBackfill implements CommandLineRunner {
+
+    private static final long CHUNK_SIZE = 10_000;
+
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void run(String... args) {
+        Long firstId = orderRepository.findMinIdWithoutTotal();
+        if (firstId == null) {
+            return;
+        }
+        long maxId = orderRepository.findMaxId();
+        long updated = 0;
+        for (long fromId = firstId - 1; fromId < maxId; fromId += CHUNK_SIZE) {
+            long chunkStart = fromId;
+            Integer count = transactionTemplate.execute(status ->
+                    orderRepository.backfillTotals(chunkStart, chunkStart + CHUNK_SIZE));
+            updated += count == null ? 0 : count;
+        }
+        if (updated > 0) {
+            log.info("Backfilled stored totals for {} orders", updated);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.bookstore.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Background jobs: outbox dispatch and cleanup
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,18 @@
+package com.bookstore.config;
+
+import com.bookstore.migration.SchemaMigrator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnProperty(name = "bookstore.schema.migrate", havingValue = "true", matchIfMissing = true)
+public class SchemaMigrationConfig {
+
+    @Bean
+    public SchemaMigrator schemaMigrator(DataSource dataSource) {
+        return new SchemaMigrator(dataSource);
+    }
+}
@@ -0,0 +1,63 @@
+package com.bookstore.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+
+// spring.threads.virtual.enabled switches Tomcat and the task executors to virtual threads (Java 21+).
+// This only reports what is actually in effect and flags JDBC drivers known to pin carrier threads.
+@Configuration
+@Slf4j
+public class VirtualThreadsConfig {
+
+    private final boolean requested;
+    private final DataSource dataSource;
+
+    public VirtualThreadsConfig(@Value("${spring.threads.virtual.enabled:false}") boolean requested,
+                                DataSource dataSource) {
+        this.requested = requested;
+        this.dataSource = dataSource;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reportThreadingMode() {
+        if (!requested) {
+            log.info("Serving requests on platform threads");
+            return;
+        }
+        int javaVersion = Runtime.version().feature();
+        if (javaVersion < 21) {
+            log.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads; "
+                    + "serving requests on platform threads (Java 21+ required)", javaVersion);
+            return;
+        }
+        log.info("Serving requests on virtual threads; run with -Djdk.tracePinnedThreads=short to report pinning");
+        checkJdbcDriver();
+    }
+
+    // Drivers that guard socket I/O with synchronized pin the carrier for the whole round trip
+    private void checkJdbcDriver() {
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            String driver = metaData.getDriverName();
+            int major = metaData.getDriverMajorVersion();
+            int minor = metaData.getDriverMinorVersion();
+            boolean pins = (driver.startsWith("MySQL Connector") && major < 9)
+                    || (driver.startsWith("PostgreSQL") && major == 42 && minor < 6);
+            if (pins) {
+                log.warn("{} {} synchronizes socket I/O and pins virtual threads during queries; "
+                        + "throughput is capped near the carrier count until the driver is upgraded",
+                        driver, metaData.getDriverVersion());
+            }
+        } catch (SQLException e) {
+            log.warn("Could not inspect the JDBC driver: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.bookstore.controller;
+
+import com.bookstore.cache.BoundedTtlCache;
+import com.bookstore.cache.CacheStats;
+import com.bookstore.dto.BookDto;
+import com.bookstore.metrics.MetricsRegistry;
+import com.bookstore.security.JwtUtil;
+import com.bookstore.security.PrincipalCache;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+@Tag(name = "Admin", description = "Operational endpoints (Admin only)")
+@SecurityRequirement(name = "Bearer Authentication")
+public class AdminController {
+
+    private final BoundedTtlCache<Long, BookDto.BookResponse> bookResponseCache;
+    private final PrincipalCache principalCache;
+    private final JwtUtil jwtUtil;
+    private final MetricsRegistry metricsRegistry;
+
+    @GetMapping(value = "/metrics", produces = "text/plain;version=0.0.4;charset=utf-8")
+    @Operation(summary = "Scrape request, repository, JWT filter, connection pool and cache metrics (Prometheus format)")
+    public ResponseEntity<String> scrapeMetrics() {
+        return ResponseEntity.ok(metricsRegistry.scrape());
+    }
+
+    @GetMapping("/cache/books")
+    @Operation(summary = "Get book cache hit/miss/eviction counters")
+    public ResponseEntity<CacheStats> getBookCacheStats() {
+        return ResponseEntity.ok(bookResponseCache.stats());
+    }
+
+    @GetMapping("/cache/principals")
+    @Operation(summary = "Get authenticated principal cache counters")
+    public ResponseEntity<CacheStats> getPrincipalCacheStats() {
+        return ResponseEntity.ok(principalCache.stats());
+    }
+
+    @GetMapping("/cache/tokens")
+    @Operation(summary = "Get verified JWT claims cache counters")
+    public ResponseEntity<CacheStats> getTokenCacheStats() {
+        return ResponseEntity.ok(jwtUtil.claimsCacheStats());
+    }
+}
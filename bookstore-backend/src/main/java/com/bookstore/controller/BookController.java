@@ -1,20 +1,34 @@
 package com.bookstore.controller;
 
+import com.bookstore.datasource.ReadRoute;
 import com.bookstore.dto.BookDto;
-import com.bookstore.model.Book;
+import com.bookstore.dto.SliceResponse;
+import com.bookstore.service.BookImportService;
 import com.bookstore.service.BookService;
+import com.bookstore.service.CatalogVersions;
+import com.bookstore.service.PageLimits;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/books")
@@ -23,38 +37,54 @@ import org.springframework.web.bind.annotation.*;
 public class BookController {
 
     private final BookService bookService;
+    private final BookImportService bookImportService;
+    private final CatalogVersions catalogVersions;
+
+    @Value("${bookstore.catalog.max-age-seconds:10}")
+    private long catalogMaxAgeSeconds;
 
     @GetMapping
-    @Operation(summary = "Get all books with pagination and optional search/filter")
+    @Operation(summary = "Get all books with pagination, optional search, and genre/price filters that combine with it")
     public ResponseEntity<Page<BookDto.BookResponse>> getAllBooks(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int size,
             @RequestParam(defaultValue = "title") String sortBy,
             @RequestParam(defaultValue = "asc") String sortDir,
             @RequestParam(required = false) String search,
-            @RequestParam(required = false) String genre) {
-
-        Sort sort = sortDir.equalsIgnoreCase("desc")
-                ? Sort.by(sortBy).descending()
-                : Sort.by(sortBy).ascending();
-        Pageable pageable = PageRequest.of(page, size, sort);
-
-        Page<Book> books;
-        if (search != null && !search.isBlank()) {
-            books = bookService.searchBooks(search, pageable);
-        } else if (genre != null && !genre.isBlank()) {
-            books = bookService.getBooksByGenre(genre, pageable);
-        } else {
-            books = bookService.getAllBooks(pageable);
-        }
+            @RequestParam(required = false) String genre,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            WebRequest webRequest) {
+
+        // Resolved before the ETag check, so an unsupported sort is rejected even when nothing changed
+        Pageable pageable = PageLimits.pageRequest(page, size, bookService.listingSort(sortBy, sortDir));
+        return conditional(webRequest, catalogVersions.catalogETag(),
+                () -> bookService.listBooks(search, genre, minPrice, maxPrice, pageable));
+    }
+
+    @GetMapping("/cursor")
+    @Operation(summary = "Get books with cursor (keyset) pagination; pass nextCursor as 'after'")
+    public ResponseEntity<SliceResponse<BookDto.BookResponse>> getBooksByCursor(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "12") int size,
+            @RequestParam(defaultValue = "title") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @RequestParam(required = false) String genre,
+            WebRequest webRequest) {
+        return conditional(webRequest, catalogVersions.catalogETag(),
+                () -> bookService.getBooksAfter(after, size, sortBy, sortDir, genre));
+    }
 
-        return ResponseEntity.ok(books.map(bookService::toResponse));
+    @GetMapping("/facets")
+    @Operation(summary = "Get every genre with its book count, in-stock count and price range")
+    public ResponseEntity<List<BookDto.GenreFacet>> getGenreFacets(WebRequest webRequest) {
+        return conditional(webRequest, catalogVersions.catalogETag(), bookService::getGenreFacets);
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get a book by ID")
-    public ResponseEntity<BookDto.BookResponse> getBookById(@PathVariable Long id) {
-        return ResponseEntity.ok(bookService.toResponse(bookService.getBookById(id)));
+    public ResponseEntity<BookDto.BookResponse> getBookById(@PathVariable Long id, WebRequest webRequest) {
+        return conditional(webRequest, catalogVersions.bookETag(id), () -> bookService.getBookResponseById(id));
     }
 
     @PostMapping
@@ -64,6 +94,18 @@ public class BookController {
                 .body(bookService.toResponse(bookService.createBook(request)));
     }
 
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    @Operation(summary = "Bulk import books from a streamed CSV or NDJSON body, upserting by ISBN (Admin only)",
+            security = @SecurityRequirement(name = "Bearer Authentication"))
+    public ResponseEntity<BookDto.ImportReport> importBooks(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+        BookImportService.Format format = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.valueOf("text/csv"))
+                ? BookImportService.Format.CSV
+                : BookImportService.Format.NDJSON;
+        return ResponseEntity.ok(bookImportService.importBooks(body, format));
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Update a book (Admin only)", security = @SecurityRequirement(name = "Bearer Authentication"))
     public ResponseEntity<BookDto.BookResponse> updateBook(@PathVariable Long id,
@@ -77,4 +119,35 @@ public class BookController {
         bookService.deleteBook(id);
         return ResponseEntity.noContent().build();
     }
+
+    // The ETag is taken before loading, so If-None-Match is answered with a 304 without touching
+    // the database or serializing a body; a change racing the load only yields an older tag. A body
+    // read from the replica may be older than the primary's tag, so it goes out untagged
+    private <T> ResponseEntity<T> conditional(WebRequest webRequest, String etag, Supplier<T> body) {
+        CacheControl cacheControl = CacheControl.maxAge(Duration.ofSeconds(catalogMaxAgeSeconds)).cachePublic();
+        if (matchesIfNoneMatch(webRequest, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        T loaded = body.get();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(cacheControl);
+        return (ReadRoute.replicaRead() ? response : response.eTag(etag)).body(loaded);
+    }
+
+    // Not WebRequest.checkNotModified: it sets the ETag header even when nothing matches
+    private static boolean matchesIfNoneMatch(WebRequest webRequest, String etag) {
+        String ifNoneMatch = webRequest.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            String candidate = tag.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
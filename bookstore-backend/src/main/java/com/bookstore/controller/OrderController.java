@@ -1,22 +1,34 @@
 package com.bookstore.controller;
 
 import com.bookstore.dto.OrderDto;
+import com.bookstore.dto.SliceResponse;
+import com.bookstore.exception.BadRequestException;
 import com.bookstore.model.Order;
+import com.bookstore.service.CheckoutBatcher;
+import com.bookstore.service.OrderExportService;
 import com.bookstore.service.OrderService;
+import com.bookstore.service.PageLimits;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/orders")
 @RequiredArgsConstructor
@@ -25,23 +37,35 @@ import org.springframework.web.bind.annotation.*;
 public class OrderController {
 
     private final OrderService orderService;
+    private final CheckoutBatcher checkoutBatcher;
+    private final OrderExportService orderExportService;
 
     @PostMapping
     @Operation(summary = "Place a new order (Customer)")
-    public ResponseEntity<OrderDto.OrderResponse> placeOrder(
+    public CompletableFuture<ResponseEntity<OrderDto.OrderResponse>> placeOrder(
             @Valid @RequestBody OrderDto.PlaceOrderRequest request,
             Authentication authentication) {
-        Order order = orderService.placeOrder(authentication.getName(), request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(orderService.toResponse(order));
+        return checkoutBatcher.placeOrder(authentication.getName(), request)
+                .thenApply(order -> ResponseEntity.status(HttpStatus.CREATED).body(orderService.toResponse(order)));
     }
 
     @GetMapping
     @Operation(summary = "Get all orders (Admin only)")
     public ResponseEntity<Page<OrderDto.OrderResponse>> getAllOrders(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        return ResponseEntity.ok(orderService.getAllOrders(pageable).map(orderService::toResponse));
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(required = false) BigDecimal minTotal,
+            @RequestParam(required = false) BigDecimal maxTotal) {
+        if (!sortBy.equals("createdAt") && !sortBy.equals("totalAmount")) {
+            throw new BadRequestException("Orders can only be sorted by createdAt or totalAmount");
+        }
+        Sort sort = sortDir.equalsIgnoreCase("asc")
+                ? Sort.by(sortBy).ascending()
+                : Sort.by(sortBy).descending();
+        Pageable pageable = PageLimits.pageRequest(page, size, sort.and(Sort.by("id").descending()));
+        return ResponseEntity.ok(orderService.getAllOrders(minTotal, maxTotal, pageable));
     }
 
     @GetMapping("/my-orders")
@@ -50,9 +74,44 @@ public class OrderController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             Authentication authentication) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        return ResponseEntity.ok(orderService.getOrdersByUser(authentication.getName(), pageable)
-                .map(orderService::toResponse));
+        Pageable pageable = PageLimits.pageRequest(page, size, Sort.by("createdAt").descending());
+        return ResponseEntity.ok(orderService.getOrdersByUser(authentication.getName(), pageable));
+    }
+
+    @GetMapping("/cursor")
+    @Operation(summary = "Get all orders with cursor pagination (Admin only)")
+    public ResponseEntity<SliceResponse<OrderDto.OrderResponse>> getAllOrdersByCursor(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(orderService.getAllOrdersAfter(after, size));
+    }
+
+    @GetMapping("/my-orders/cursor")
+    @Operation(summary = "Get current user's orders with cursor pagination")
+    public ResponseEntity<SliceResponse<OrderDto.OrderResponse>> getMyOrdersByCursor(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size,
+            Authentication authentication) {
+        return ResponseEntity.ok(orderService.getOrdersByUserAfter(authentication.getName(), after, size));
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Stream order lines as CSV or NDJSON, filtered by date range and status (Admin only)")
+    public void exportOrders(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Order.OrderStatus status,
+            HttpServletResponse response) throws IOException {
+        OrderExportService.Format exportFormat = format.equalsIgnoreCase("ndjson")
+                ? OrderExportService.Format.NDJSON
+                : OrderExportService.Format.CSV;
+        response.setContentType(exportFormat == OrderExportService.Format.CSV
+                ? "text/csv;charset=UTF-8"
+                : "application/x-ndjson;charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"orders." + exportFormat.name().toLowerCase() + "\"");
+        orderExportService.exportOrders(from, to, status, exportFormat, response.getOutputStream());
     }
 
     @GetMapping("/{id}")
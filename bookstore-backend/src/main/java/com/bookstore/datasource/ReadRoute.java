@@ -0,0 +1,52 @@
+package com.bookstore.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Whether read-only transactions on the current thread may use the replica. Set for the length of a
+ * request by {@link ReplicaReadInterceptor}; every other thread (schedulers, index rebuilds, the
+ * checkout batcher) reads the primary.
+ */
+public final class ReadRoute {
+
+    private static final ThreadLocal<Boolean> REPLICA_ALLOWED = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> REPLICA_READ = new ThreadLocal<>();
+
+    private ReadRoute() {
+    }
+
+    static void allowReplica() {
+        REPLICA_ALLOWED.set(Boolean.TRUE);
+    }
+
+    static void clear() {
+        REPLICA_ALLOWED.remove();
+        REPLICA_READ.remove();
+    }
+
+    static void replicaConnectionTaken() {
+        REPLICA_READ.set(Boolean.TRUE);
+    }
+
+    public static boolean replicaAllowed() {
+        return REPLICA_ALLOWED.get() != null;
+    }
+
+    // Whether this request has read from the replica so far, i.e. what it loaded may trail the primary
+    public static boolean replicaRead() {
+        return REPLICA_READ.get() != null;
+    }
+
+    // For reads whose result outlives the request, such as cache fills, which must not keep replica lag around
+    public static <T> T primary(Supplier<T> work) {
+        Boolean allowed = REPLICA_ALLOWED.get();
+        REPLICA_ALLOWED.remove();
+        try {
+            return work.get();
+        } finally {
+            if (allowed != null) {
+                REPLICA_ALLOWED.set(allowed);
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.bookstore.datasource;
+
+import com.bookstore.cache.BoundedTtlCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Users who wrote recently, whose reads stay on the primary until the replica is sure to have their
+ * write. The window is the replica's lag bound plus one lag check, since the replica is only used
+ * while its measured lag is within that bound. Holds nothing when the replica or the option is off.
+ */
+@Component
+public class ReadYourWrites {
+
+    // Evicting a user early only sends their next read to the replica a little sooner
+    private static final int MAX_USERS = 100_000;
+
+    private final BoundedTtlCache<String, Boolean> recentWriters;
+
+    public ReadYourWrites(@Value("${bookstore.datasource.replica.enabled:false}") boolean replicaEnabled,
+                          @Value("${bookstore.datasource.replica.read-your-writes:true}") boolean enabled,
+                          @Value("${bookstore.datasource.replica.max-lag-millis:2000}") long maxLagMillis,
+                          @Value("${bookstore.datasource.replica.lag-check-millis:500}") long lagCheckMillis) {
+        this.recentWriters = new BoundedTtlCache<>("read-your-writes", replicaEnabled && enabled ? MAX_USERS : 0,
+                maxLagMillis + lagCheckMillis);
+    }
+
+    public void wrote(String user) {
+        recentWriters.put(user, Boolean.TRUE);
+    }
+
+    public boolean recentlyWrote(String user) {
+        return recentWriters.get(user) != null;
+    }
+}
@@ -0,0 +1,112 @@
+package com.bookstore.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+/**
+ * Measures how far the replica is behind and takes it out of rotation while that exceeds the bound,
+ * so a read served by the replica is never staler than max-lag plus one check interval. A replica
+ * that cannot be asked, or that is not replicating, counts as lagging: once it stops receiving
+ * changes it has nothing left to replay and would otherwise look caught up.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    // Unknown without a streaming WAL receiver; caught up when nothing is left to replay; otherwise the
+    // age of the last replayed transaction. Without pg_read_all_stats the receiver's status reads as null
+    private static final String POSTGRES_LAG_SQL = "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 " +
+            "WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver " +
+            "WHERE COALESCE(status, 'streaming') = 'streaming') THEN -1 " +
+            "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE CAST(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 AS BIGINT) END";
+    // MariaDB answers it too, but with the older column names
+    private static final String MYSQL_STATUS_SQL = "SHOW REPLICA STATUS";
+
+    private final JdbcTemplate replica;
+    private final ReplicaRoutingDataSource routing;
+    private final long maxLagMillis;
+    private volatile String database;
+    private volatile long lagMillis = -1;
+
+    public ReplicaLagMonitor(DataSource replica, ReplicaRoutingDataSource routing, long maxLagMillis) {
+        this.replica = new JdbcTemplate(replica);
+        this.routing = routing;
+        this.maxLagMillis = maxLagMillis;
+    }
+
+    @Scheduled(fixedDelayString = "${bookstore.datasource.replica.lag-check-millis:500}")
+    public void check() {
+        long lag;
+        try {
+            lag = measure();
+        } catch (DataAccessException | IllegalStateException e) {
+            log.debug("Replica lag check failed: {}", e.getMessage());
+            lag = -1;
+        }
+        lagMillis = lag;
+        boolean usable = lag >= 0 && lag <= maxLagMillis;
+        if (usable != routing.replicaUsable()) {
+            if (usable) {
+                log.info("Replica caught up ({} ms behind), serving reads from it", lag);
+            } else {
+                log.warn("Replica {}, reading from the primary", lag < 0 ? "unavailable" : lag + " ms behind");
+            }
+            routing.setReplicaUsable(usable);
+        }
+    }
+
+    // -1 when replication is stopped or the lag is unknown
+    private long measure() {
+        if (database == null) {
+            database = replica.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+        }
+        return switch (database) {
+            case "PostgreSQL" -> {
+                Long lag = replica.queryForObject(POSTGRES_LAG_SQL, Long.class);
+                yield lag == null || lag < 0 ? -1 : lag;
+            }
+            // No row means replication was never set up or was reset
+            case "MySQL", "MariaDB" -> replica.query(MYSQL_STATUS_SQL, rows -> {
+                if (!rows.next()) {
+                    return -1L;
+                }
+                if (!"Yes".equals(mysqlStatus(rows, "Replica_IO_Running", "Slave_IO_Running"))
+                        || !"Yes".equals(mysqlStatus(rows, "Replica_SQL_Running", "Slave_SQL_Running"))) {
+                    return -1L;
+                }
+                String seconds = mysqlStatus(rows, "Seconds_Behind_Source", "Seconds_Behind_Master");
+                return seconds == null ? -1L : Long.parseLong(seconds) * 1000;
+            });
+            // Nothing to ask, e.g. two H2 databases in the replica runner
+            default -> {
+                replica.execute("SELECT 1");
+                yield 0L;
+            }
+        };
+    }
+
+    // MySQL 8.0.22+ names, then the ones MariaDB and older MySQL use
+    private static String mysqlStatus(ResultSet rows, String column, String legacyColumn) throws SQLException {
+        ResultSetMetaData metaData = rows.getMetaData();
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            String label = metaData.getColumnLabel(i);
+            if (label.equalsIgnoreCase(column) || label.equalsIgnoreCase(legacyColumn)) {
+                return rows.getString(i);
+            }
+        }
+        throw new IllegalStateException("SHOW REPLICA STATUS has no " + column + " or " + legacyColumn + " column");
+    }
+
+    public long lagMillis() {
+        return lagMillis;
+    }
+}
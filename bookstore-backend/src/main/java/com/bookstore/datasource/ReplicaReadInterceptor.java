@@ -0,0 +1,63 @@
+package com.bookstore.datasource;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Lets GET requests read from the replica, unless the caller wrote within the read-your-writes
+ * window. Any other method marks the caller as a recent writer when it starts, which covers reads
+ * sent as soon as the response arrives, and again when it completes, which starts the window after
+ * the commit. The caller is kept on the request, because async re-dispatches do not run the JWT
+ * filter again.
+ */
+public class ReplicaReadInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String USER_ATTRIBUTE = ReplicaReadInterceptor.class.getName() + ".user";
+
+    private final ReadYourWrites readYourWrites;
+
+    public ReplicaReadInterceptor(ReadYourWrites readYourWrites) {
+        this.readYourWrites = readYourWrites;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (request.getAttribute(USER_ATTRIBUTE) == null && authentication != null
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            request.setAttribute(USER_ATTRIBUTE, authentication.getName());
+        }
+        Object user = request.getAttribute(USER_ATTRIBUTE);
+        if (!isRead(request)) {
+            if (user != null) {
+                readYourWrites.wrote((String) user);
+            }
+        } else if (user == null || !readYourWrites.recentlyWrote((String) user)) {
+            ReadRoute.allowReplica();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        ReadRoute.clear();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        ReadRoute.clear();
+        if (!isRead(request) && request.getAttribute(USER_ATTRIBUTE) instanceof String user) {
+            readYourWrites.wrote(user);
+        }
+    }
+
+    private static boolean isRead(HttpServletRequest request) {
+        return request.getMethod().equals("GET") || request.getMethod().equals("HEAD");
+    }
+}
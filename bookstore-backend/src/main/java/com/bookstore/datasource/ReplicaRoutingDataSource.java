@@ -0,0 +1,87 @@
+package com.bookstore.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hands out replica connections to read-only transactions on threads where {@link ReadRoute} allows
+ * it, while the replica is within its lag bound; everything else gets the primary. Must sit behind a
+ * LazyConnectionDataSourceProxy: the transaction manager opens the connection before it marks the
+ * transaction read-only, and the proxy defers the choice until the first statement.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Route { PRIMARY, REPLICA }
+
+    private final DataSource primary;
+    private final DataSource replica;
+    // Off until the lag monitor has seen the replica caught up
+    private volatile boolean replicaUsable;
+
+    private final LongAdder primaryConnections = new LongAdder();
+    private final LongAdder replicaConnections = new LongAdder();
+    private final LongAdder replicaFallbacks = new LongAdder();
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica) {
+        this.primary = primary;
+        this.replica = replica;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return replicaUsable && ReadRoute.replicaAllowed()
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? Route.REPLICA : Route.PRIMARY;
+    }
+
+    // A replica that refuses connections costs latency on the primary, not failed reads
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (determineTargetDataSource() == primary) {
+            primaryConnections.increment();
+            return primary.getConnection();
+        }
+        try {
+            Connection connection = replica.getConnection();
+            replicaConnections.increment();
+            ReadRoute.replicaConnectionTaken();
+            return connection;
+        } catch (SQLException e) {
+            replicaFallbacks.increment();
+            log.warn("Replica connection failed, reading from the primary: {}", e.getMessage());
+            primaryConnections.increment();
+            return primary.getConnection();
+        }
+    }
+
+    void setReplicaUsable(boolean usable) {
+        replicaUsable = usable;
+    }
+
+    public boolean replicaUsable() {
+        return replicaUsable;
+    }
+
+    public long primaryConnectionCount() {
+        return primaryConnections.sum();
+    }
+
+    public long replicaConnectionCount() {
+        return replicaConnections.sum();
+    }
+
+    public long replicaFallbackCount() {
+        return replicaFallbacks.sum();
+    }
+}
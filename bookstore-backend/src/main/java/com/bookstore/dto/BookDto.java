@@ -4,6 +4,8 @@ import jakarta.validation.constraints.*;
 import lombok.Data;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 
 public class BookDto {
 
@@ -29,6 +31,9 @@ public class BookDto {
         private Integer stockQuantity;
 
         private String imageUrl;
+
+        // Optional on update: the version the client last read; a mismatch is rejected with 409
+        private Long version;
     }
 
     @Data
@@ -42,5 +47,41 @@ public class BookDto {
         private String description;
         private Integer stockQuantity;
         private String imageUrl;
+        private Long version;
+    }
+
+    // One genre in GET /api/books/facets; key is the value to pass as the genre filter
+    @Data
+    public static class GenreFacet {
+        private String genre;
+        private String key;
+        private int count;
+        private int inStock;
+        private BigDecimal minPrice;
+        private BigDecimal maxPrice;
+    }
+
+    @Data
+    public static class ImportReport {
+        private long rowsRead;
+        private long inserted;
+        private long updated;
+        private long failed;
+        // Rows skipped because a later row in the same batch has the same ISBN
+        private long duplicates;
+        private long elapsedMillis;
+        private double rowsPerSecond;
+        private List<ImportError> errors = new ArrayList<>();
+    }
+
+    @Data
+    public static class ImportError {
+        private long row;
+        private String message;
+
+        public ImportError(long row, String message) {
+            this.row = row;
+            this.message = message;
+        }
     }
 }
@@ -32,6 +32,9 @@ public class OrderDto {
         @NotNull
         private Order.OrderStatus status;
         private Order.PaymentStatus paymentStatus;
+
+        // Optional: the version the client last read; a mismatch is rejected with 409
+        private Long version;
     }
 
     @Data
@@ -54,8 +57,26 @@ public class OrderDto {
         private String userEmail;
         private List<OrderItemResponse> items;
         private BigDecimal totalAmount;
+        private Integer itemCount;
         private Order.OrderStatus status;
         private Order.PaymentStatus paymentStatus;
         private LocalDateTime createdAt;
+        private Long version;
+    }
+
+    @Data
+    public static class OrderExportRow {
+        private Long orderId;
+        private LocalDateTime createdAt;
+        private Order.OrderStatus status;
+        private Order.PaymentStatus paymentStatus;
+        private Long userId;
+        private String userEmail;
+        private Long bookId;
+        private String bookTitle;
+        private String isbn;
+        private Integer quantity;
+        private BigDecimal unitPrice;
+        private BigDecimal subtotal;
     }
 }
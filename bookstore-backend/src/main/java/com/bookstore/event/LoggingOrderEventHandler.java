@@ -0,0 +1,15 @@
+package com.bookstore.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+@Component
+@Slf4j
+public class LoggingOrderEventHandler implements OrderEventHandler {
+
+    @Override
+    public void handle(OrderEvent event) {
+        log.info("Order event {} #{} for order {} (attempt {})",
+                event.type(), event.eventId(), event.orderId(), event.attempt());
+    }
+}
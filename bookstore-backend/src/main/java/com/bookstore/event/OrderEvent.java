@@ -0,0 +1,14 @@
+package com.bookstore.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * An order event as handed to {@link OrderEventHandler}s. Delivery is at least once, so
+ * handlers must tolerate seeing the same {@code eventId} again.
+ */
+public record OrderEvent(Long eventId, String type, Long orderId, String payload, int attempt,
+                         LocalDateTime createdAt) {
+
+    public static final String ORDER_PLACED = "ORDER_PLACED";
+    public static final String ORDER_STATUS_CHANGED = "ORDER_STATUS_CHANGED";
+}
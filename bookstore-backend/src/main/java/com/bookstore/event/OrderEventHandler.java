@@ -0,0 +1,8 @@
+package com.bookstore.event;
+
+// Post-checkout work (notifications, analytics, fulfillment); every bean is called for every event
+public interface OrderEventHandler {
+
+    // Throwing schedules the event for redelivery to all handlers
+    void handle(OrderEvent event) throws Exception;
+}
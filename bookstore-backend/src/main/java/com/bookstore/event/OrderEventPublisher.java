@@ -0,0 +1,74 @@
+package com.bookstore.event;
+
+import com.bookstore.model.Order;
+import com.bookstore.model.OrderItem;
+import com.bookstore.model.OrderOutboxEvent;
+import com.bookstore.repository.OrderOutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Appends outbox rows inside the caller's transaction: the event exists iff the order change commits
+@Component
+@RequiredArgsConstructor
+public class OrderEventPublisher {
+
+    private final OrderOutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void orderPlaced(Order order) {
+        List<Map<String, Object>> items = order.getOrderItems().stream()
+                .map(OrderEventPublisher::itemPayload)
+                .toList();
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("orderId", order.getId());
+        payload.put("userId", order.getUser().getId());
+        payload.put("userEmail", order.getUser().getEmail());
+        payload.put("totalAmount", order.getTotalAmount());
+        payload.put("itemCount", order.getItemCount());
+        payload.put("items", items);
+        append(OrderEvent.ORDER_PLACED, order.getId(), payload);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void statusChanged(Order order) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("orderId", order.getId());
+        payload.put("status", order.getStatus());
+        payload.put("paymentStatus", order.getPaymentStatus());
+        append(OrderEvent.ORDER_STATUS_CHANGED, order.getId(), payload);
+    }
+
+    private void append(String type, Long orderId, Map<String, Object> payload) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            outboxRepository.save(OrderOutboxEvent.builder()
+                    .orderId(orderId)
+                    .eventType(type)
+                    .payload(objectMapper.writeValueAsString(payload))
+                    .availableAt(now)
+                    .createdAt(now)
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + type + " event for order " + orderId, e);
+        }
+    }
+
+    private static Map<String, Object> itemPayload(OrderItem item) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("bookId", item.getBook().getId());
+        map.put("quantity", item.getQuantity());
+        map.put("unitPrice", item.getUnitPrice() == null ? BigDecimal.ZERO : item.getUnitPrice());
+        return map;
+    }
+}
@@ -0,0 +1,179 @@
+package com.bookstore.event;
+
+import com.bookstore.metrics.LatencyTimer;
+import com.bookstore.metrics.MetricsRegistry;
+import com.bookstore.model.OrderOutboxEvent;
+import com.bookstore.repository.OrderOutboxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drains order_outbox in batches and hands every event to all {@link OrderEventHandler}s.
+ * A batch is claimed with SKIP LOCKED in a short transaction that counts the attempt and leases
+ * the events (pushes availableAt past the lease), so no other dispatcher takes them meanwhile.
+ * Handlers run outside any transaction, and each event's outcome is written in its own one, so
+ * delivery is at least once: an event whose outcome never lands is claimed again when its lease
+ * runs out. Failed events are retried with exponential backoff and parked as FAILED after the
+ * configured number of attempts, including those that never got an outcome recorded.
+ */
+@Component
+@ConditionalOnProperty(name = "bookstore.outbox.dispatcher.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class OutboxDispatcher {
+
+    private static final Duration MAX_BACKOFF = Duration.ofMinutes(5);
+
+    private final OrderOutboxRepository outboxRepository;
+    private final List<OrderEventHandler> handlers;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration lease;
+    private final Duration retention;
+    private final LatencyTimer batchTimer;
+    private final LatencyTimer lagTimer;
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder parked = new LongAdder();
+
+    public OutboxDispatcher(OrderOutboxRepository outboxRepository,
+                            List<OrderEventHandler> handlers,
+                            TransactionTemplate transactionTemplate,
+                            MetricsRegistry metricsRegistry,
+                            @Value("${bookstore.outbox.batch-size:100}") int batchSize,
+                            @Value("${bookstore.outbox.max-attempts:10}") int maxAttempts,
+                            @Value("${bookstore.outbox.lease-seconds:60}") long leaseSeconds,
+                            @Value("${bookstore.outbox.retention-hours:24}") long retentionHours) {
+        this.outboxRepository = outboxRepository;
+        this.handlers = handlers;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.retention = Duration.ofHours(retentionHours);
+        this.batchTimer = metricsRegistry.timer("outbox_batch_seconds", "Time to dispatch one outbox batch");
+        this.lagTimer = metricsRegistry.timer("outbox_delivery_lag_seconds",
+                "Time from order commit to successful delivery of its event");
+        metricsRegistry.gauge("outbox_delivered_total", "Outbox events delivered", delivered::sum);
+        metricsRegistry.gauge("outbox_delivery_failures_total", "Failed outbox delivery attempts", failures::sum);
+        metricsRegistry.gauge("outbox_parked_total", "Outbox events parked as FAILED", parked::sum);
+        log.info("Outbox dispatcher started with {} handler(s)", handlers.size());
+    }
+
+    @Scheduled(fixedDelayString = "${bookstore.outbox.poll-interval-millis:250}")
+    public void drain() {
+        Claim claim;
+        do {
+            long start = System.nanoTime();
+            try {
+                claim = transactionTemplate.execute(status -> claimBatch());
+            } catch (RuntimeException e) {
+                // Nothing was claimed; the events are picked up again on the next poll
+                log.warn("Could not claim outbox events: {}", e.getMessage());
+                return;
+            }
+            claim.events().forEach(this::deliver);
+            if (claim.rows() > 0) {
+                batchTimer.record(System.nanoTime() - start);
+            }
+        } while (claim.rows() == batchSize);
+    }
+
+    private Claim claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OrderOutboxEvent> rows = outboxRepository.lockPending(now, PageRequest.of(0, batchSize));
+        List<OrderEvent> events = new ArrayList<>(rows.size());
+        for (OrderOutboxEvent row : rows) {
+            if (row.getAttempts() >= maxAttempts) {
+                // Every attempt ended without an outcome, e.g. the dispatcher died while delivering it
+                row.setStatus(OrderOutboxEvent.Status.FAILED);
+                row.setLastError(truncate("No outcome recorded after " + row.getAttempts() + " attempts"));
+                parked.increment();
+                log.error("Outbox event #{} ({}) parked after {} attempts without an outcome",
+                        row.getId(), row.getEventType(), row.getAttempts());
+                continue;
+            }
+            row.setAttempts(row.getAttempts() + 1);
+            row.setAvailableAt(now.plus(lease));
+            events.add(new OrderEvent(row.getId(), row.getEventType(), row.getOrderId(), row.getPayload(),
+                    row.getAttempts(), row.getCreatedAt()));
+        }
+        return new Claim(rows.size(), events);
+    }
+
+    private void deliver(OrderEvent event) {
+        Exception failure = null;
+        try {
+            for (OrderEventHandler handler : handlers) {
+                handler.handle(event);
+            }
+        } catch (Exception e) {
+            failure = e;
+        }
+        Exception outcome = failure;
+        try {
+            transactionTemplate.executeWithoutResult(status -> record(event, outcome));
+        } catch (RuntimeException e) {
+            // The lease runs out and the event is delivered again
+            log.warn("Could not record the outcome of outbox event #{}: {}", event.eventId(), e.getMessage());
+        }
+    }
+
+    // Matching on attempts drops the outcome of a delivery whose lease ran out and was claimed again
+    private void record(OrderEvent event, Exception failure) {
+        LocalDateTime now = LocalDateTime.now();
+        if (failure == null) {
+            if (outboxRepository.recordOutcome(event.eventId(), event.attempt(), OrderOutboxEvent.Status.DONE,
+                    now, now, null) > 0) {
+                delivered.increment();
+                lagTimer.record(Duration.between(event.createdAt(), now).toNanos());
+            }
+            return;
+        }
+        failures.increment();
+        if (event.attempt() >= maxAttempts) {
+            if (outboxRepository.recordOutcome(event.eventId(), event.attempt(), OrderOutboxEvent.Status.FAILED,
+                    now, null, truncate(failure.toString())) > 0) {
+                parked.increment();
+                log.error("Outbox event #{} ({}) parked after {} attempts: {}",
+                        event.eventId(), event.type(), event.attempt(), failure.toString());
+            }
+        } else {
+            outboxRepository.recordOutcome(event.eventId(), event.attempt(), OrderOutboxEvent.Status.PENDING,
+                    now.plus(backoff(event.attempt())), null, truncate(failure.toString()));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${bookstore.outbox.cleanup-interval-millis:3600000}")
+    public void purgeDelivered() {
+        Integer deleted = transactionTemplate.execute(status ->
+                outboxRepository.deleteProcessedBefore(LocalDateTime.now().minus(retention)));
+        if (deleted != null && deleted > 0) {
+            log.info("Purged {} delivered outbox events", deleted);
+        }
+    }
+
+    private static Duration backoff(int attempts) {
+        Duration delay = Duration.ofSeconds(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : delay;
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= 1000 ? message : message.substring(0, 1000);
+    }
+
+    // rows counts parked events too, so a full batch of them still drains the next one
+    private record Claim(int rows, List<OrderEvent> events) {
+    }
+}
@@ -0,0 +1,275 @@
+package com.bookstore.facet;
+
+import com.bookstore.dto.BookDto;
+import com.bookstore.model.Book;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.service.CatalogVersions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Book count, in-stock count and price range per genre, kept current by BookService writes and
+// order stock changes so GET /api/books/facets never queries the database. Built from the catalog
+// at startup and after bulk imports; changes made while a rebuild runs are replayed over it. Every
+// entry keeps the row version it came from, and a change older than the entry is ignored, since
+// after-commit callbacks from concurrent orders can arrive out of order.
+@Component
+@Slf4j
+public class GenreFacetIndex {
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final BookRepository bookRepository;
+    private final CatalogVersions catalogVersions;
+    // Serializes rebuilds; taken before lock, never after it
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    // Guards books, facets and changedDuringRebuild
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private Map<Long, Entry> books = new HashMap<>();
+    private Map<String, Facet> facets = new HashMap<>();
+    // Ids changed while a rebuild is running, with their latest entry (empty when removed)
+    private Map<Long, Optional<Entry>> changedDuringRebuild;
+    private volatile List<BookDto.GenreFacet> snapshot = List.of();
+
+    public GenreFacetIndex(BookRepository bookRepository, CatalogVersions catalogVersions) {
+        this.bookRepository = bookRepository;
+        this.catalogVersions = catalogVersions;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuildInBackground();
+    }
+
+    public void rebuildInBackground() {
+        Thread builder = new Thread(this::rebuild, "genre-facet-index");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            long start = System.currentTimeMillis();
+            lock.lock();
+            try {
+                changedDuringRebuild = new HashMap<>();
+            } finally {
+                lock.unlock();
+            }
+            Map<Long, Entry> rebuiltBooks = new HashMap<>();
+            Map<String, Facet> rebuiltFacets = new HashMap<>();
+            long lastId = 0L;
+            Slice<Book> batch;
+            do {
+                batch = bookRepository.findByIdGreaterThan(lastId,
+                        PageRequest.of(0, REBUILD_BATCH_SIZE, Sort.by("id")));
+                for (Book book : batch) {
+                    Entry entry = Entry.of(book);
+                    if (entry != null) {
+                        rebuiltBooks.put(book.getId(), entry);
+                        add(rebuiltFacets, entry);
+                    }
+                    lastId = book.getId();
+                }
+            } while (batch.hasNext());
+            lock.lock();
+            try {
+                changedDuringRebuild.forEach((id, entry) -> {
+                    Entry read = rebuiltBooks.get(id);
+                    // The batch may have read the row after the change, at a newer version
+                    if (read != null && entry.isPresent() && read.version() > entry.get().version()) {
+                        return;
+                    }
+                    rebuiltBooks.remove(id);
+                    if (read != null) {
+                        subtract(rebuiltFacets, read);
+                    }
+                    entry.ifPresent(latest -> {
+                        rebuiltBooks.put(id, latest);
+                        add(rebuiltFacets, latest);
+                    });
+                });
+                changedDuringRebuild = null;
+                books = rebuiltBooks;
+                facets = rebuiltFacets;
+                snapshot = null;
+            } finally {
+                lock.unlock();
+            }
+            catalogVersions.catalogChanged();
+            log.info("Genre facets built for {} books in {} genres in {} ms",
+                    rebuiltBooks.size(), rebuiltFacets.size(), System.currentTimeMillis() - start);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    // All genres, largest first
+    public List<BookDto.GenreFacet> facets() {
+        List<BookDto.GenreFacet> current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        lock.lock();
+        try {
+            if (snapshot == null) {
+                snapshot = facets.entrySet().stream()
+                        .map(facet -> facet.getValue().toResponse(facet.getKey()))
+                        .sorted(Comparator.comparingInt(BookDto.GenreFacet::getCount).reversed()
+                                .thenComparing(BookDto.GenreFacet::getKey))
+                        .toList();
+            }
+            return snapshot;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void put(Book book) {
+        lock.lock();
+        try {
+            Entry current = books.get(book.getId());
+            if (current == null || current.version() <= versionOf(book)) {
+                replace(book.getId(), Entry.of(book));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void remove(Long bookId) {
+        lock.lock();
+        try {
+            replace(bookId, null);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Inside a transaction the change is applied after commit, so a rolled-back order leaves no trace
+    public void stockChanged(Long bookId, int stockQuantity, long version) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyStock(bookId, stockQuantity, version);
+                }
+            });
+        } else {
+            applyStock(bookId, stockQuantity, version);
+        }
+    }
+
+    private void applyStock(Long bookId, int stockQuantity, long version) {
+        lock.lock();
+        try {
+            Entry entry = books.get(bookId);
+            if (entry == null || version < entry.version()) {
+                return;
+            }
+            Entry changed = new Entry(entry.key(), entry.genre(), entry.price(), stockQuantity > 0, version);
+            if (changed.inStock() != entry.inStock()) {
+                replace(bookId, changed);
+                return;
+            }
+            // Only the version moves, so the counts and the cached facets stay
+            books.put(bookId, changed);
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.put(bookId, Optional.of(changed));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Caller holds lock
+    private void replace(Long bookId, Entry entry) {
+        Entry previous = entry == null ? books.remove(bookId) : books.put(bookId, entry);
+        if (previous != null) {
+            subtract(facets, previous);
+        }
+        if (entry != null) {
+            add(facets, entry);
+        }
+        if (changedDuringRebuild != null) {
+            changedDuringRebuild.put(bookId, Optional.ofNullable(entry));
+        }
+        snapshot = null;
+    }
+
+    private static long versionOf(Book book) {
+        return book.getVersion() == null ? 0 : book.getVersion();
+    }
+
+    private static void add(Map<String, Facet> facets, Entry entry) {
+        Facet facet = facets.computeIfAbsent(entry.key(), key -> new Facet(entry.genre()));
+        facet.count++;
+        if (entry.inStock()) {
+            facet.inStock++;
+        }
+        facet.prices.merge(entry.price(), 1, Integer::sum);
+    }
+
+    private static void subtract(Map<String, Facet> facets, Entry entry) {
+        Facet facet = facets.get(entry.key());
+        if (facet == null) {
+            return;
+        }
+        facet.count--;
+        if (entry.inStock()) {
+            facet.inStock--;
+        }
+        facet.prices.computeIfPresent(entry.price(), (price, count) -> count == 1 ? null : count - 1);
+        if (facet.count == 0) {
+            facets.remove(entry.key());
+        }
+    }
+
+    private record Entry(String key, String genre, BigDecimal price, boolean inStock, long version) {
+        // Books without a genre have no facet
+        static Entry of(Book book) {
+            String key = Book.genreKeyOf(book.getGenre());
+            if (key == null) {
+                return null;
+            }
+            return new Entry(key, book.getGenre().trim(), book.getPrice(),
+                    book.getStockQuantity() != null && book.getStockQuantity() > 0, versionOf(book));
+        }
+    }
+
+    private static final class Facet {
+        // Spelling of the first book seen with this key
+        private final String genre;
+        private int count;
+        private int inStock;
+        // Price -> number of books at that price, so the range survives removals
+        private final TreeMap<BigDecimal, Integer> prices = new TreeMap<>();
+
+        private Facet(String genre) {
+            this.genre = genre;
+        }
+
+        private BookDto.GenreFacet toResponse(String key) {
+            BookDto.GenreFacet response = new BookDto.GenreFacet();
+            response.setGenre(genre);
+            response.setKey(key);
+            response.setCount(count);
+            response.setInStock(inStock);
+            response.setMinPrice(prices.isEmpty() ? null : prices.firstKey());
+            response.setMaxPrice(prices.isEmpty() ? null : prices.lastKey());
+            return response;
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package com.bookstore.inventory;
+
+import com.bookstore.cache.BoundedTtlCache;
+import com.bookstore.catalog.CatalogSnapshotService;
+import com.bookstore.dto.BookDto;
+import com.bookstore.facet.GenreFacetIndex;
+import com.bookstore.metrics.LatencyTimer;
+import com.bookstore.metrics.MetricsRegistry;
+import com.bookstore.service.CatalogVersions;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Opt-in in-memory inventory for a configured set of hot books. Checkouts reserve against striped
+ * counters seeded from books.stock_quantity instead of updating the row, and the net change is
+ * written back in one batched UPDATE per flush interval.
+ * <p>
+ * Every change is appended to a {@link ReservationLog} that is fsynced before the order commits,
+ * and the flush stores the last applied log position in inventory_checkpoint in the same
+ * transaction as the stock update. On startup, entries past the checkpoint are replayed into the
+ * database before any counter is seeded. A crash can therefore only leave stock reserved for an
+ * order that never committed (undersold), never sold twice.
+ * <p>
+ * The counters are per process: with more than one instance, every hot book must be sold through
+ * a single instance. Stock shown by the catalog lags by up to one flush interval.
+ */
+@Component
+@Slf4j
+public class HotStockLedger {
+
+    private static final String CHECKPOINT_NAME = "hot-stock";
+    private static final String SELECT_STOCK_SQL = "SELECT stock_quantity FROM books WHERE id = ?";
+    private static final String SELECT_STOCK_AND_VERSION_SQL = "SELECT stock_quantity, version FROM books WHERE id = ?";
+    private static final String APPLY_DELTA_SQL =
+            "UPDATE books SET stock_quantity = stock_quantity + ?, version = version + 1 WHERE id = ?";
+    private static final String SELECT_CHECKPOINT_SQL = "SELECT last_seq FROM inventory_checkpoint WHERE name = ?";
+    private static final String UPDATE_CHECKPOINT_SQL =
+            "UPDATE inventory_checkpoint SET last_seq = ?, updated_at = ? WHERE name = ?";
+    private static final String INSERT_CHECKPOINT_SQL =
+            "INSERT INTO inventory_checkpoint (name, last_seq, updated_at) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BoundedTtlCache<Long, BookDto.BookResponse> bookResponseCache;
+    private final CatalogVersions catalogVersions;
+    private final GenreFacetIndex genreFacetIndex;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final boolean enabled;
+    private final Set<Long> hotBookIds;
+    private final int stripes;
+    private final long flushIntervalMillis;
+    private final ReservationLog reservationLog;
+
+    private final Map<Long, HotBook> books = new ConcurrentHashMap<>();
+    // Keeps log order and pending in step, so a flush snapshot covers exactly the entries up to its seq
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private Map<Long, Long> pending = new HashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final LatencyTimer flushTimer;
+    private final LongAdder reservations = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+
+    public HotStockLedger(JdbcTemplate jdbcTemplate,
+                          TransactionTemplate transactionTemplate,
+                          BoundedTtlCache<Long, BookDto.BookResponse> bookResponseCache,
+                          CatalogVersions catalogVersions,
+                          GenreFacetIndex genreFacetIndex,
+                          CatalogSnapshotService catalogSnapshotService,
+                          MetricsRegistry metricsRegistry,
+                          @Value("${bookstore.inventory.hot.enabled:false}") boolean enabled,
+                          @Value("${bookstore.inventory.hot.book-ids:}") Set<Long> hotBookIds,
+                          @Value("${bookstore.inventory.hot.stripes:8}") int stripes,
+                          @Value("${bookstore.inventory.hot.flush-interval-millis:500}") long flushIntervalMillis,
+                          @Value("${bookstore.inventory.hot.log-dir:./data/hot-stock}") String logDir) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.bookResponseCache = bookResponseCache;
+        this.catalogVersions = catalogVersions;
+        this.genreFacetIndex = genreFacetIndex;
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.enabled = enabled && !hotBookIds.isEmpty();
+        this.hotBookIds = Set.copyOf(hotBookIds);
+        this.stripes = stripes;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.reservationLog = new ReservationLog(Path.of(logDir));
+        this.flushTimer = metricsRegistry.timer("hot_stock_flush_seconds", "Time to write hot stock deltas back");
+        metricsRegistry.gauge("hot_stock_reservations_total", "Checkouts reserved against hot stock counters",
+                reservations::sum);
+        metricsRegistry.gauge("hot_stock_rejections_total", "Checkouts refused for lack of hot stock",
+                rejections::sum);
+        metricsRegistry.gauge("hot_stock_flushes_total", "Hot stock flushes written to the database", flushes::sum);
+        metricsRegistry.gauge("hot_stock_available_units", "Units available across hot books",
+                () -> books.values().stream().mapToLong(book -> book.stock.available()).sum());
+    }
+
+    // Replays even when hot stock is now off or lists no books: entries left in the log are sales
+    // that committed but never reached the database, and skipping them would sell those units again
+    @PostConstruct
+    void recover() throws IOException {
+        List<ReservationLog.Entry> logged = reservationLog.readAll();
+        if (!enabled && logged.isEmpty()) {
+            return;
+        }
+        long checkpoint = readCheckpoint();
+        // A write retried after a failed fsync can repeat entries, so keep one per seq
+        Map<Long, ReservationLog.Entry> entries = new TreeMap<>();
+        for (ReservationLog.Entry entry : logged) {
+            entries.putIfAbsent(entry.seq(), entry);
+        }
+        long lastSeq = checkpoint;
+        Map<Long, Long> deltas = new TreeMap<>();
+        for (ReservationLog.Entry entry : entries.values()) {
+            if (entry.seq() > checkpoint) {
+                deltas.merge(entry.bookId(), entry.delta(), Long::sum);
+                lastSeq = entry.seq();
+            }
+        }
+        if (lastSeq > checkpoint) {
+            long replayedUpTo = lastSeq;
+            transactionTemplate.executeWithoutResult(status -> apply(deltas, replayedUpTo));
+            log.info("Replayed hot stock log entries {}..{} into {} book(s)", checkpoint + 1, lastSeq, deltas.size());
+        }
+        reservationLog.delete(reservationLog.segments());
+        if (!enabled) {
+            log.info("Hot stock is disabled; its log has been written back and removed");
+            return;
+        }
+        reservationLog.open(lastSeq + 1);
+        log.info("Hot stock enabled for books {}: {} stripes, flush every {} ms",
+                new TreeSet<>(hotBookIds), stripes, flushIntervalMillis);
+    }
+
+    // Seeds the counters on first use, so only books that exist are ever treated as hot
+    public boolean isHot(Long bookId) {
+        return enabled && hotBookIds.contains(bookId) && hotBook(bookId) != null;
+    }
+
+    /**
+     * Reserves the given quantities of hot books. Must run inside the order's transaction: the log
+     * entries are made durable before it commits, and the stock is given back if it rolls back.
+     * On a shortfall nothing is held and {@link Claim#shortfall()} names the book that ran out.
+     */
+    public Claim reserve(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return new Claim(Map.of(), null);
+        }
+        Map<Long, Integer> taken = new TreeMap<>();
+        for (Map.Entry<Long, Integer> entry : new TreeMap<>(quantities).entrySet()) {
+            if (!hotBook(entry.getKey()).stock.tryTake(entry.getValue())) {
+                rejections.increment();
+                taken.forEach((bookId, quantity) -> books.get(bookId).stock.put(quantity));
+                return new Claim(Map.of(), entry.getKey());
+            }
+            taken.put(entry.getKey(), entry.getValue());
+        }
+        long lastSeq = record(taken, -1);
+        Claim claim = new Claim(taken, null);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                reservationLog.sync(lastSeq);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    claim.release();
+                }
+            }
+        });
+        reservations.increment();
+        return claim;
+    }
+
+    @Scheduled(fixedDelayString = "${bookstore.inventory.hot.flush-interval-millis:500}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            Map<Long, Long> deltas = null;
+            ReservationLog.Rolled rolled = null;
+            appendLock.lock();
+            try {
+                if (!pending.isEmpty()) {
+                    rolled = reservationLog.roll();
+                    deltas = pending;
+                    pending = new HashMap<>();
+                }
+            } finally {
+                appendLock.unlock();
+            }
+            if (deltas != null) {
+                write(deltas, rolled);
+            }
+            reconcile();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Hot stock flush failed: {}", e.getMessage());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        if (enabled) {
+            flush();
+            reservationLog.close();
+        }
+    }
+
+    private void write(Map<Long, Long> deltas, ReservationLog.Rolled rolled) throws IOException {
+        long start = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> apply(deltas, rolled.lastSeq()));
+        } catch (RuntimeException e) {
+            // Nothing was applied: the deltas go back into pending and the segments stay until a flush succeeds
+            appendLock.lock();
+            try {
+                deltas.forEach((bookId, delta) -> pending.merge(bookId, delta, Long::sum));
+            } finally {
+                appendLock.unlock();
+            }
+            throw e;
+        }
+        flushTimer.record(System.nanoTime() - start);
+        flushes.increment();
+        deltas.forEach((bookId, delta) -> {
+            if (delta != 0) {
+                HotBook book = books.get(bookId);
+                book.databaseStock += delta;
+                stockChanged(bookId);
+                bookResponseCache.invalidate(bookId);
+                catalogVersions.bookChanged(bookId);
+            }
+        });
+        reservationLog.delete(rolled.obsolete());
+    }
+
+    // Caller runs this in a transaction so the stock and the checkpoint move together
+    private void apply(Map<Long, Long> deltas, long lastSeq) {
+        List<Map.Entry<Long, Long>> changed = new TreeMap<>(deltas).entrySet().stream()
+                .filter(entry -> entry.getValue() != 0)
+                .toList();
+        if (!changed.isEmpty()) {
+            jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, changed, changed.size(), (ps, entry) -> {
+                ps.setLong(1, entry.getValue());
+                ps.setLong(2, entry.getKey());
+            });
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (jdbcTemplate.update(UPDATE_CHECKPOINT_SQL, lastSeq, now, CHECKPOINT_NAME) == 0) {
+            jdbcTemplate.update(INSERT_CHECKPOINT_SQL, CHECKPOINT_NAME, lastSeq, now);
+        }
+    }
+
+    // Picks up stock changed outside the ledger since the last flush, e.g. a restock through the admin API
+    private void reconcile() {
+        books.forEach((bookId, book) -> {
+            List<Long> rows = jdbcTemplate.queryForList(SELECT_STOCK_SQL, Long.class, bookId);
+            if (rows.isEmpty()) {
+                return;
+            }
+            long drift = rows.get(0) - book.databaseStock;
+            if (drift == 0) {
+                return;
+            }
+            book.databaseStock = rows.get(0);
+            long missing = book.stock.adjust(drift);
+            stockChanged(bookId);
+            log.info("Hot book {} changed by {} outside the ledger", bookId, drift);
+            if (missing > 0) {
+                log.warn("Hot book {} was lowered by {} units more than were still available", bookId, missing);
+            }
+        });
+    }
+
+    private void stockChanged(Long bookId) {
+        // The facets and the snapshot take stock and version read together, so a patch can never pair
+        // a newer version with older stock
+        jdbcTemplate.query(SELECT_STOCK_AND_VERSION_SQL, rs -> {
+            genreFacetIndex.stockChanged(bookId, rs.getInt("stock_quantity"), rs.getLong("version"));
+            catalogSnapshotService.stockChanged(bookId, rs.getInt("stock_quantity"), rs.getLong("version"));
+        }, bookId);
+    }
+
+    private long readCheckpoint() {
+        List<Long> rows = jdbcTemplate.queryForList(SELECT_CHECKPOINT_SQL, Long.class, CHECKPOINT_NAME);
+        return rows.isEmpty() ? 0 : rows.get(0);
+    }
+
+    private HotBook hotBook(Long bookId) {
+        return books.computeIfAbsent(bookId, id -> {
+            List<Long> rows = jdbcTemplate.queryForList(SELECT_STOCK_SQL, Long.class, id);
+            return rows.isEmpty() ? null : new HotBook(new StripedStock(stripes, rows.get(0)), rows.get(0));
+        });
+    }
+
+    // Returns the seq of the last entry written
+    private long record(Map<Long, Integer> quantities, int sign) {
+        appendLock.lock();
+        try {
+            long seq = 0;
+            for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+                long delta = (long) sign * entry.getValue();
+                seq = reservationLog.append(entry.getKey(), delta);
+                pending.merge(entry.getKey(), delta, Long::sum);
+            }
+            return seq;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void giveBack(Map<Long, Integer> quantities) {
+        quantities.forEach((bookId, quantity) -> books.get(bookId).stock.put(quantity));
+        // Not synced: losing a give-back in a crash only leaves stock unsold, never oversold
+        record(quantities, 1);
+    }
+
+    private static final class HotBook {
+        private final StripedStock stock;
+        // What books.stock_quantity should hold after our own flushes; touched by the flush thread only
+        private long databaseStock;
+
+        private HotBook(StripedStock stock, long databaseStock) {
+            this.stock = stock;
+            this.databaseStock = databaseStock;
+        }
+    }
+
+    /**
+     * Hot stock held for one order. Released automatically if the order's transaction rolls back;
+     * callers that fail the order without rolling back release it themselves.
+     */
+    public final class Claim {
+        private final Map<Long, Integer> quantities;
+        private final Long shortfall;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Claim(Map<Long, Integer> quantities, Long shortfall) {
+            this.quantities = quantities;
+            this.shortfall = shortfall;
+        }
+
+        public boolean succeeded() {
+            return shortfall == null;
+        }
+
+        public Long shortfall() {
+            return shortfall;
+        }
+
+        public void release() {
+            if (!quantities.isEmpty() && released.compareAndSet(false, true)) {
+                giveBack(quantities);
+            }
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.bookstore.inventory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of hot stock changes ("seq,bookId,delta" per line), split into segments that are
+ * deleted once a flush has written them to the database. Appends only fill a buffer; {@link #sync}
+ * writes and fsyncs it, so transactions committing together share one fsync.
+ */
+final class ReservationLog implements Closeable {
+
+    record Entry(long seq, long bookId, long delta) {
+    }
+
+    record Rolled(long lastSeq, List<Path> obsolete) {
+    }
+
+    private static final String PREFIX = "reservations-";
+    private static final String SUFFIX = ".wal";
+
+    private final Path directory;
+    // Guards buffer, nextSeq and channel; syncLock is always taken first when both are needed
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final StringBuilder buffer = new StringBuilder();
+    private FileChannel channel;
+    private long nextSeq;
+    private volatile long durableSeq;
+
+    ReservationLog(Path directory) {
+        this.directory = directory;
+    }
+
+    // Every entry in every segment, oldest first; a torn last line from a crash is skipped
+    List<Entry> readAll() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        for (Path segment : segments()) {
+            try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] parts = line.split(",");
+                    if (parts.length != 3) {
+                        continue;
+                    }
+                    try {
+                        entries.add(new Entry(Long.parseLong(parts[0]), Long.parseLong(parts[1]),
+                                Long.parseLong(parts[2])));
+                    } catch (NumberFormatException ignored) {
+                        // partial write at the end of a segment
+                    }
+                }
+            }
+        }
+        return entries;
+    }
+
+    List<Path> segments() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+            }).sorted().toList();
+        }
+    }
+
+    void open(long firstSeq) throws IOException {
+        lock.lock();
+        try {
+            nextSeq = firstSeq;
+            durableSeq = firstSeq - 1;
+            channel = openSegment(firstSeq);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long append(long bookId, long delta) {
+        lock.lock();
+        try {
+            long seq = nextSeq++;
+            buffer.append(seq).append(',').append(bookId).append(',').append(delta).append('\n');
+            return seq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Makes every entry up to seq durable
+    void sync(long seq) {
+        if (durableSeq >= seq) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            if (durableSeq >= seq) {
+                return;
+            }
+            durableSeq = writeBuffered();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not sync hot stock log", e);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Makes the current segment durable and starts a new one. The returned segments hold every entry
+     * up to lastSeq and can be deleted once those entries are in the database.
+     */
+    Rolled roll() throws IOException {
+        syncLock.lock();
+        try {
+            long lastSeq = writeBuffered();
+            durableSeq = lastSeq;
+            List<Path> obsolete = segments();
+            lock.lock();
+            try {
+                channel.close();
+                channel = openSegment(nextSeq);
+            } finally {
+                lock.unlock();
+            }
+            return new Rolled(lastSeq, obsolete);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    void delete(List<Path> segments) throws IOException {
+        for (Path segment : segments) {
+            Files.deleteIfExists(segment);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        syncLock.lock();
+        try {
+            if (channel != null) {
+                durableSeq = writeBuffered();
+                channel.close();
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    // Caller holds syncLock; returns the last seq now on disk. The buffer is only trimmed after a
+    // successful fsync, so a failed write leaves every entry in place for the next attempt.
+    private long writeBuffered() throws IOException {
+        String pending;
+        long upTo;
+        FileChannel target;
+        lock.lock();
+        try {
+            pending = buffer.toString();
+            upTo = nextSeq - 1;
+            target = channel;
+        } finally {
+            lock.unlock();
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(pending.getBytes(StandardCharsets.UTF_8));
+        while (bytes.hasRemaining()) {
+            target.write(bytes);
+        }
+        target.force(false);
+        lock.lock();
+        try {
+            buffer.delete(0, pending.length());
+        } finally {
+            lock.unlock();
+        }
+        return upTo;
+    }
+
+    private FileChannel openSegment(long firstSeq) throws IOException {
+        Files.createDirectories(directory);
+        Path segment = directory.resolve(PREFIX + String.format("%019d", firstSeq) + SUFFIX);
+        return FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+}
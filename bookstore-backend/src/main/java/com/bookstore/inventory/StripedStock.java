@@ -0,0 +1,85 @@
+package com.bookstore.inventory;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Available stock of one hot book, split over several counters so concurrent buyers mostly CAS
+ * different cache lines. No stripe ever goes below zero, so the sum can never go negative either.
+ */
+final class StripedStock {
+
+    // 16 longs = 128 bytes between stripes, enough to keep neighbours off each other's cache line
+    private static final int PAD = 16;
+
+    private final AtomicLongArray slots;
+    private final int stripes;
+
+    StripedStock(int stripes, long initial) {
+        this.stripes = Math.max(1, stripes);
+        this.slots = new AtomicLongArray(this.stripes * PAD);
+        long share = Math.max(0, initial) / this.stripes;
+        long remainder = Math.max(0, initial) % this.stripes;
+        for (int i = 0; i < this.stripes; i++) {
+            slots.set(i * PAD, share + (i < remainder ? 1 : 0));
+        }
+    }
+
+    long available() {
+        long sum = 0;
+        for (int i = 0; i < stripes; i++) {
+            sum += slots.get(i * PAD);
+        }
+        return sum;
+    }
+
+    /**
+     * Takes quantity from the caller's home stripe, or gathers it from several stripes when the home
+     * stripe runs short. Under heavy contention near zero this can refuse an order that a concurrent
+     * partial take is about to give back; it never accepts one that would oversell.
+     */
+    boolean tryTake(long quantity) {
+        int home = ThreadLocalRandom.current().nextInt(stripes);
+        long remaining = gather(home, quantity);
+        if (remaining > 0) {
+            slots.addAndGet(home * PAD, quantity - remaining);
+            return false;
+        }
+        return true;
+    }
+
+    void put(long quantity) {
+        slots.addAndGet(ThreadLocalRandom.current().nextInt(stripes) * PAD, quantity);
+    }
+
+    /**
+     * Applies a change made outside this process (a restock or correction in the database).
+     * A decrease takes what it can and reports the part it could not take.
+     */
+    long adjust(long delta) {
+        if (delta >= 0) {
+            put(delta);
+            return 0;
+        }
+        return gather(0, -delta);
+    }
+
+    // Takes up to quantity, visiting stripes from start onwards; returns what could not be taken
+    private long gather(int start, long quantity) {
+        long remaining = quantity;
+        for (int n = 0; n < stripes && remaining > 0; n++) {
+            int index = ((start + n) % stripes) * PAD;
+            while (remaining > 0) {
+                long current = slots.get(index);
+                if (current <= 0) {
+                    break;
+                }
+                long take = Math.min(current, remaining);
+                if (slots.compareAndSet(index, current, current - take)) {
+                    remaining -= take;
+                }
+            }
+        }
+        return remaining;
+    }
+}
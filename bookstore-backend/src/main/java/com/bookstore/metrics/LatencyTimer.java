@@ -0,0 +1,96 @@
+package com.bookstore.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with microsecond resolution. Each power of two is
+ * split into four linear sub-buckets, so any percentile is within 25% of the
+ * true value while recording stays a shift, a mask and two LongAdder increments.
+ */
+public class LatencyTimer {
+
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_POWER = 36; // ~19 hours
+    private static final int BUCKETS = (MAX_POWER + 1) * SUB_BUCKETS;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+
+    public LatencyTimer() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets[bucketIndex(value / 1000)].increment();
+        count.increment();
+        totalNanos.add(value);
+        maxNanos.accumulate(value);
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public double totalSeconds() {
+        return totalNanos.sum() / 1e9;
+    }
+
+    public double maxSeconds() {
+        return maxNanos.get() / 1e9;
+    }
+
+    // Number of recordings below 2^power microseconds
+    public long countBelowPowerOfTwoMicros(int power) {
+        long below = 0;
+        int limit = Math.min(BUCKETS, power * SUB_BUCKETS);
+        for (int i = 0; i < limit; i++) {
+            below += buckets[i].sum();
+        }
+        return below;
+    }
+
+    // Upper bound of the bucket holding the given quantile, in seconds
+    public double percentileSeconds(double quantile) {
+        long total = count();
+        if (total == 0) {
+            return 0.0;
+        }
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets[i].sum();
+            if (seen >= rank) {
+                return upperBoundMicros(i) / 1e6;
+            }
+        }
+        return maxSeconds();
+    }
+
+    static int bucketIndex(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int power = 63 - Long.numberOfLeadingZeros(micros);
+        if (power > MAX_POWER) {
+            return BUCKETS - 1;
+        }
+        int subBucket = (int) (micros >>> (power - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return power * SUB_BUCKETS + subBucket;
+    }
+
+    static double upperBoundMicros(int index) {
+        if (index < SUB_BUCKETS) {
+            return index + 1;
+        }
+        int power = index / SUB_BUCKETS;
+        int subBucket = index % SUB_BUCKETS;
+        return Math.pow(2, power) * (SUB_BUCKETS + subBucket + 1) / SUB_BUCKETS;
+    }
+}
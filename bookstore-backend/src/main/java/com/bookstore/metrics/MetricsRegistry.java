@@ -0,0 +1,123 @@
+package com.bookstore.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Supplier;
+
+// Holds every timer and gauge and renders them in the Prometheus text exposition format
+@Component
+public class MetricsRegistry {
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+    private static final int FIRST_BUCKET_POWER = 6;  // 64 microseconds
+    private static final int LAST_BUCKET_POWER = 26;  // ~67 seconds
+
+    private final Map<String, Family> families = new ConcurrentSkipListMap<>();
+
+    public LatencyTimer timer(String name, String help, String... labels) {
+        Family family = families.computeIfAbsent(name, n -> new Family(n, help, true));
+        return (LatencyTimer) family.series.computeIfAbsent(formatLabels(labels), l -> new LatencyTimer());
+    }
+
+    public void gauge(String name, String help, Supplier<? extends Number> value, String... labels) {
+        Family family = families.computeIfAbsent(name, n -> new Family(n, help, false));
+        family.series.put(formatLabels(labels), value);
+    }
+
+    public String scrape() {
+        StringBuilder out = new StringBuilder(8192);
+        for (Family family : families.values()) {
+            if (family.timer) {
+                writeTimer(out, family);
+            } else {
+                writeGauge(out, family);
+            }
+        }
+        return out.toString();
+    }
+
+    private void writeTimer(StringBuilder out, Family family) {
+        String name = family.name;
+        header(out, name, family.help, "histogram");
+        family.series.forEach((labels, series) -> {
+            LatencyTimer timer = (LatencyTimer) series;
+            long count = timer.count();
+            for (int power = FIRST_BUCKET_POWER; power <= LAST_BUCKET_POWER; power++) {
+                String le = Double.toString(Math.pow(2, power) / 1e6);
+                sample(out, name + "_bucket", withLabel(labels, "le", le), timer.countBelowPowerOfTwoMicros(power));
+            }
+            sample(out, name + "_bucket", withLabel(labels, "le", "+Inf"), count);
+            sample(out, name + "_sum", labels, timer.totalSeconds());
+            sample(out, name + "_count", labels, count);
+        });
+
+        header(out, name + "_max", "Maximum of " + family.help, "gauge");
+        family.series.forEach((labels, series) ->
+                sample(out, name + "_max", labels, ((LatencyTimer) series).maxSeconds()));
+
+        header(out, name + "_percentile", "Percentiles of " + family.help, "gauge");
+        family.series.forEach((labels, series) -> {
+            for (double quantile : PERCENTILES) {
+                sample(out, name + "_percentile", withLabel(labels, "quantile", Double.toString(quantile)),
+                        ((LatencyTimer) series).percentileSeconds(quantile));
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private void writeGauge(StringBuilder out, Family family) {
+        header(out, family.name, family.help, "gauge");
+        family.series.forEach((labels, series) -> {
+            Number value = ((Supplier<? extends Number>) series).get();
+            sample(out, family.name, labels, value == null ? Double.NaN : value.doubleValue());
+        });
+    }
+
+    private static void header(StringBuilder out, String name, String help, String type) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name).append(labels).append(' ').append(value).append('\n');
+    }
+
+    private static String withLabel(String labels, String key, String value) {
+        String label = key + "=\"" + value + "\"";
+        return labels.isEmpty() ? "{" + label + "}" : labels.substring(0, labels.length() - 1) + "," + label + "}";
+    }
+
+    private static String formatLabels(String... labels) {
+        if (labels.length == 0) {
+            return "";
+        }
+        Map<String, String> sorted = new TreeMap<>();
+        for (int i = 0; i + 1 < labels.length; i += 2) {
+            sorted.put(labels[i], labels[i + 1].replace("\\", "\\\\").replace("\"", "\\\""));
+        }
+        StringBuilder formatted = new StringBuilder("{");
+        sorted.forEach((key, value) -> {
+            if (formatted.length() > 1) {
+                formatted.append(',');
+            }
+            formatted.append(key).append("=\"").append(value).append('"');
+        });
+        return formatted.append('}').toString();
+    }
+
+    private static class Family {
+        private final String name;
+        private final String help;
+        private final boolean timer;
+        private final Map<String, Object> series = new ConcurrentSkipListMap<>();
+
+        Family(String name, String help, boolean timer) {
+            this.name = name;
+            this.help = help;
+            this.timer = timer;
+        }
+    }
+}
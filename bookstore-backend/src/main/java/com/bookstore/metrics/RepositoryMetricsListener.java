@@ -0,0 +1,33 @@
+package com.bookstore.metrics;
+
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+public class RepositoryMetricsListener implements RepositoryMethodInvocationListener {
+
+    private final MetricsRegistry registry;
+    private final Map<TimerKey, LatencyTimer> timers = new ConcurrentHashMap<>();
+
+    public RepositoryMetricsListener(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void afterInvocation(RepositoryMethodInvocation invocation) {
+        TimerKey key = new TimerKey(invocation.getRepositoryInterface(), invocation.getMethod(),
+                invocation.getResult().getState());
+        timers.computeIfAbsent(key, k -> registry.timer("repository_invocations_seconds",
+                        "Spring Data repository method latency",
+                        "repository", k.repository().getSimpleName(),
+                        "method", k.method().getName(),
+                        "state", k.state().name()))
+                .record(invocation.getDuration(TimeUnit.NANOSECONDS));
+    }
+
+    private record TimerKey(Class<?> repository, Method method, RepositoryMethodInvocationResult.State state) {
+    }
+}
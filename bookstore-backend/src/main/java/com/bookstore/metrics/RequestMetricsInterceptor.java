@@ -0,0 +1,52 @@
+package com.bookstore.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Times every controller method; the start time survives async re-dispatch so async handlers are timed end to end
+public class RequestMetricsInterceptor implements HandlerInterceptor {
+
+    private static final String START_ATTRIBUTE = RequestMetricsInterceptor.class.getName() + ".start";
+
+    private final MetricsRegistry registry;
+    private final Map<TimerKey, LatencyTimer> timers = new ConcurrentHashMap<>();
+
+    public RequestMetricsInterceptor(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(START_ATTRIBUTE) == null) {
+            request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        if (!(handler instanceof HandlerMethod handlerMethod) || !(start instanceof Long startNanos)
+                || request.isAsyncStarted()) {
+            return;
+        }
+        TimerKey key = new TimerKey(handlerMethod.getMethod(), request.getMethod(), response.getStatus());
+        timers.computeIfAbsent(key, k -> registry.timer("http_server_requests_seconds",
+                        "Controller request latency",
+                        "controller", handlerMethod.getBeanType().getSimpleName(),
+                        "handler", k.method().getName(),
+                        "http_method", k.httpMethod(),
+                        "status", String.valueOf(k.status())))
+                .record(System.nanoTime() - startNanos);
+    }
+
+    private record TimerKey(Method method, String httpMethod, int status) {
+    }
+}
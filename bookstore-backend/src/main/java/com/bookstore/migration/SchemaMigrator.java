@@ -0,0 +1,218 @@
+package com.bookstore.migration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.*;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Applies the scripts in db/migration/&lt;database&gt; in version order and records each one in
+ * schema_version with a checksum. A script that changed after it was applied stops startup. All
+ * work happens on one connection holding a database-wide lock, so instances starting together
+ * apply each script once.
+ */
+@Slf4j
+public class SchemaMigrator implements InitializingBean {
+
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    private static final String LOCK_NAME = "bookstore_schema_migration";
+    // Any fixed key works for pg_advisory_lock, as long as nothing else in the database uses it
+    private static final long POSTGRES_LOCK_KEY = 0x626f6f6b73L;
+    private static final int LOCK_TIMEOUT_SECONDS = 300;
+    // Table exists, duplicate column, duplicate key name: MySQL has no IF NOT EXISTS for columns and
+    // indexes, and these mean the statement's change is already in place
+    private static final Set<Integer> MYSQL_ALREADY_APPLIED = Set.of(1050, 1060, 1061);
+
+    private static final String CREATE_VERSION_TABLE_SQL = "CREATE TABLE IF NOT EXISTS schema_version (" +
+            "version INT NOT NULL PRIMARY KEY, description VARCHAR(200) NOT NULL, checksum CHAR(64) NOT NULL, " +
+            "installed_at TIMESTAMP NOT NULL, execution_millis BIGINT NOT NULL)";
+    private static final String SELECT_APPLIED_SQL = "SELECT version, checksum FROM schema_version";
+    private static final String INSERT_APPLIED_SQL = "INSERT INTO schema_version " +
+            "(version, description, checksum, installed_at, execution_millis) VALUES (?, ?, ?, ?, ?)";
+
+    private final DataSource dataSource;
+
+    public SchemaMigrator(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws SQLException, IOException {
+        migrate();
+    }
+
+    public void migrate() throws SQLException, IOException {
+        try (Connection connection = dataSource.getConnection()) {
+            String database = database(connection.getMetaData().getDatabaseProductName());
+            List<Script> scripts = scripts(database);
+            lock(connection, database);
+            try {
+                execute(connection, CREATE_VERSION_TABLE_SQL);
+                Map<Integer, String> applied = applied(connection);
+                int pending = 0;
+                for (Script script : scripts) {
+                    String checksum = applied.remove(script.version());
+                    if (checksum == null) {
+                        apply(connection, database, script);
+                        pending++;
+                    } else if (!checksum.equals(script.checksum())) {
+                        throw new IllegalStateException("Migration V" + script.version() + " (" + script.description()
+                                + ") changed after it was applied; add a new version instead of editing it");
+                    }
+                }
+                if (!applied.isEmpty()) {
+                    log.warn("Database has migrations this build does not know: V{}", applied.keySet());
+                }
+                log.info("Schema is at V{} ({} applied now)",
+                        scripts.isEmpty() ? 0 : scripts.get(scripts.size() - 1).version(), pending);
+            } finally {
+                unlock(connection, database);
+            }
+        }
+    }
+
+    private void apply(Connection connection, String database, Script script) throws SQLException {
+        long start = System.currentTimeMillis();
+        boolean autoCommit = connection.getAutoCommit();
+        // PostgreSQL runs DDL transactionally, so a failed script leaves nothing behind there;
+        // MySQL commits each DDL statement, and its scripts are written to be re-run
+        connection.setAutoCommit(false);
+        try {
+            for (String statement : script.statements()) {
+                try (Statement jdbc = connection.createStatement()) {
+                    jdbc.execute(statement);
+                } catch (SQLException e) {
+                    if (!database.equals("mysql") || !MYSQL_ALREADY_APPLIED.contains(e.getErrorCode())) {
+                        throw e;
+                    }
+                    log.info("V{}: already in place, skipped: {}", script.version(), e.getMessage());
+                }
+            }
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_APPLIED_SQL)) {
+                insert.setInt(1, script.version());
+                insert.setString(2, script.description());
+                insert.setString(3, script.checksum());
+                insert.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
+                insert.setLong(5, System.currentTimeMillis() - start);
+                insert.executeUpdate();
+            }
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw new IllegalStateException("Migration V" + script.version() + " (" + script.description()
+                    + ") failed: " + e.getMessage(), e);
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        log.info("Applied V{} ({}) in {} ms", script.version(), script.description(),
+                System.currentTimeMillis() - start);
+    }
+
+    private static String database(String productName) {
+        return switch (productName) {
+            case "MySQL", "MariaDB" -> "mysql";
+            case "PostgreSQL" -> "postgresql";
+            default -> throw new IllegalStateException("No migrations for " + productName
+                    + "; set bookstore.schema.migrate=false and let spring.jpa.hibernate.ddl-auto manage it");
+        };
+    }
+
+    private static List<Script> scripts(String database) throws IOException {
+        Resource[] resources = new PathMatchingResourcePatternResolver()
+                .getResources("classpath:db/migration/" + database + "/V*__*.sql");
+        Map<Integer, Script> scripts = new TreeMap<>();
+        for (Resource resource : resources) {
+            Matcher name = SCRIPT_NAME.matcher(Objects.requireNonNull(resource.getFilename()));
+            if (!name.matches()) {
+                throw new IllegalStateException("Migration file must be named V<version>__<description>.sql: "
+                        + resource.getFilename());
+            }
+            int version = Integer.parseInt(name.group(1));
+            String content = resource.getContentAsString(StandardCharsets.UTF_8).replace("\r\n", "\n");
+            Script script = new Script(version, name.group(2).replace('_', ' '), checksum(content),
+                    statements(content));
+            if (scripts.put(version, script) != null) {
+                throw new IllegalStateException("Two migrations share version V" + version);
+            }
+        }
+        return List.copyOf(scripts.values());
+    }
+
+    // One statement per ';' at the end of a line; whole-line "--" comments are dropped
+    private static List<String> statements(String content) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : content.split("\n")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                continue;
+            }
+            current.append(line).append('\n');
+            if (trimmed.endsWith(";")) {
+                statements.add(current.substring(0, current.lastIndexOf(";")).trim());
+                current.setLength(0);
+            }
+        }
+        if (!current.toString().isBlank()) {
+            statements.add(current.toString().trim());
+        }
+        return statements;
+    }
+
+    private static String checksum(String content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Map<Integer, String> applied(Connection connection) throws SQLException {
+        Map<Integer, String> applied = new TreeMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery(SELECT_APPLIED_SQL)) {
+            while (rows.next()) {
+                applied.put(rows.getInt("version"), rows.getString("checksum"));
+            }
+        }
+        return applied;
+    }
+
+    private static void lock(Connection connection, String database) throws SQLException {
+        String sql = database.equals("mysql")
+                ? "SELECT GET_LOCK('" + LOCK_NAME + "', " + LOCK_TIMEOUT_SECONDS + ")"
+                : "SELECT pg_advisory_lock(" + POSTGRES_LOCK_KEY + ")";
+        try (Statement statement = connection.createStatement(); ResultSet result = statement.executeQuery(sql)) {
+            // GET_LOCK answers 0 on timeout; pg_advisory_lock waits and returns void
+            if (database.equals("mysql") && (!result.next() || result.getInt(1) != 1)) {
+                throw new IllegalStateException("Timed out waiting for another instance to finish migrating");
+            }
+        }
+    }
+
+    private static void unlock(Connection connection, String database) throws SQLException {
+        execute(connection, database.equals("mysql")
+                ? "SELECT RELEASE_LOCK('" + LOCK_NAME + "')"
+                : "SELECT pg_advisory_unlock(" + POSTGRES_LOCK_KEY + ")");
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private record Script(int version, String description, String checksum, List<String> statements) {
+    }
+}
@@ -0,0 +1,15 @@
+package com.bookstore.migration;
+
+import org.springframework.boot.sql.init.dependency.AbstractBeansOfTypeDatabaseInitializerDetector;
+
+import java.util.Set;
+
+// Marks SchemaMigrator as a database initializer, so the EntityManagerFactory, JdbcTemplate and
+// anything else that uses the database is created after it, the way Spring Boot orders Flyway
+class SchemaMigratorDatabaseInitializerDetector extends AbstractBeansOfTypeDatabaseInitializerDetector {
+
+    @Override
+    protected Set<Class<?>> getDatabaseInitializerBeanTypes() {
+        return Set.of(SchemaMigrator.class);
+    }
+}
@@ -6,17 +6,29 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.regex.Pattern;
 
 @Entity
-@Table(name = "books")
+// The idx_books_*_id indexes back the listing sorts in BookSort; each ends in id for the tiebreaker
+@Table(name = "books", indexes = {
+        @Index(name = "idx_books_genre_key", columnList = "genre_key"),
+        @Index(name = "idx_books_title_id", columnList = "title, id"),
+        @Index(name = "idx_books_author_id", columnList = "author, id"),
+        @Index(name = "idx_books_price_id", columnList = "price, id"),
+        @Index(name = "idx_books_author_title_id", columnList = "author, title, id")
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Book {
 
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -31,6 +43,10 @@ public class Book {
 
     private String genre;
 
+    // Normalized genre for filtering and facets, derived on every save; JDBC writers set it themselves
+    @Column(name = "genre_key")
+    private String genreKey;
+
     @Column(unique = true)
     private String isbn;
 
@@ -47,4 +63,24 @@ public class Book {
     private Integer stockQuantity;
 
     private String imageUrl;
+
+    // Optimistic lock; JDBC writers (stock reservation, bulk import) bump it too
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
+    @PrePersist
+    @PreUpdate
+    void deriveGenreKey() {
+        genreKey = genreKeyOf(genre);
+    }
+
+    // Trimmed, lower case, single-spaced; null for a missing genre
+    public static String genreKeyOf(String genre) {
+        if (genre == null || genre.isBlank()) {
+            return null;
+        }
+        return WHITESPACE.matcher(genre.trim().toLowerCase(Locale.ROOT)).replaceAll(" ");
+    }
 }
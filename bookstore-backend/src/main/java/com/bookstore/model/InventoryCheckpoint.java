@@ -0,0 +1,27 @@
+package com.bookstore.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Highest hot stock log entry already applied to books.stock_quantity; written by HotStockLedger
+@Entity
+@Table(name = "inventory_checkpoint")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryCheckpoint {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(name = "last_seq", nullable = false)
+    private Long lastSeq;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -5,14 +5,21 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+// Mirrors db/migration: a customer's orders newest first, and the admin listing by createdAt or totalAmount
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_user_created", columnList = "user_id, created_at, id"),
+        @Index(name = "idx_orders_created", columnList = "created_at, id"),
+        @Index(name = "idx_orders_total", columnList = "total_amount, id")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -41,9 +48,20 @@ public class Order {
     @Builder.Default
     private PaymentStatus paymentStatus = PaymentStatus.PENDING;
 
+    // Computed once at checkout; null only for rows awaiting OrderTotalsBackfill
+    @Column(precision = 12, scale = 2)
+    private BigDecimal totalAmount;
+
+    private Integer itemCount;
+
     @CreationTimestamp
     private LocalDateTime createdAt;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     public enum OrderStatus {
         PENDING, PROCESSING, SHIPPED, DELIVERED, CANCELLED
     }
@@ -1,21 +1,28 @@
 package com.bookstore.repository;
 
 import com.bookstore.model.Book;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book>,
+        BookRepositoryCustom {
+
+    Slice<Book> findByIdGreaterThan(Long id, Pageable pageable);
 
-    Page<Book> findByGenreIgnoreCase(String genre, Pageable pageable);
+    @Query("SELECT b.isbn, b.id FROM Book b WHERE b.isbn IN :isbns")
+    List<Object[]> findIdsByIsbnIn(@Param("isbns") Collection<String> isbns);
 
-    @Query("SELECT b FROM Book b WHERE " +
-           "LOWER(b.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-           "LOWER(b.author) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-           "LOWER(b.genre) LIKE LOWER(CONCAT('%', :keyword, '%'))")
-    Page<Book> searchBooks(@Param("keyword") String keyword, Pageable pageable);
+    // Every id in the order the database sorts by, so callers share its collation
+    @Query("SELECT b.id FROM Book b")
+    List<Long> findIds(Sort sort);
 }
@@ -0,0 +1,13 @@
+package com.bookstore.repository;
+
+import com.bookstore.model.Book;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+public interface BookRepositoryCustom {
+
+    // Up to limit books in the sort's order (its fields, then id) strictly after the given key; no count query
+    List<Book> findAfter(BookSort sort, Sort.Direction direction, List<Comparable<?>> afterValues, Long afterId,
+                         String genreKey, int limit);
+}
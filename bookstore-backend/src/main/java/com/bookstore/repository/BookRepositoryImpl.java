@@ -0,0 +1,65 @@
+package com.bookstore.repository;
+
+import com.bookstore.model.Book;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.*;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BookRepositoryImpl implements BookRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public List<Book> findAfter(BookSort sort, Sort.Direction direction, List<Comparable<?>> afterValues, Long afterId,
+                                String genreKey, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Book> query = cb.createQuery(Book.class);
+        Root<Book> book = query.from(Book.class);
+        boolean ascending = direction.isAscending();
+        // Sort fields then id, except for the id sort whose only field is id
+        List<Path<Comparable>> keys = new ArrayList<>();
+        List<Comparable> values = new ArrayList<>();
+        for (int i = 0; i < sort.fields().size(); i++) {
+            keys.add(book.get(sort.fields().get(i)));
+            values.add(afterValues == null ? null : afterValues.get(i));
+        }
+        if (sort != BookSort.ID) {
+            keys.add(book.get("id"));
+            values.add(afterId);
+        }
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (afterId != null) {
+            // Row comparison (k1, ..., kn) > (v1, ..., vn) spelled out: k1 > v1 OR (k1 = v1 AND k2 > v2) OR ...
+            List<Predicate> after = new ArrayList<>();
+            List<Predicate> equalSoFar = new ArrayList<>();
+            for (int i = 0; i < keys.size(); i++) {
+                Path<Comparable> key = keys.get(i);
+                Comparable value = values.get(i);
+                List<Predicate> branch = new ArrayList<>(equalSoFar);
+                branch.add(ascending ? cb.greaterThan(key, value) : cb.lessThan(key, value));
+                after.add(cb.and(branch.toArray(Predicate[]::new)));
+                equalSoFar.add(cb.equal(key, value));
+            }
+            predicates.add(cb.or(after.toArray(Predicate[]::new)));
+            // Redundant, but lets MySQL and PostgreSQL start the index range scan at the cursor,
+            // which they do not do for the OR above alone
+            Path<Comparable> first = keys.get(0);
+            predicates.add(ascending ? cb.greaterThanOrEqualTo(first, values.get(0))
+                    : cb.lessThanOrEqualTo(first, values.get(0)));
+        }
+        if (genreKey != null) {
+            predicates.add(cb.equal(book.get("genreKey"), genreKey));
+        }
+
+        query.where(predicates.toArray(Predicate[]::new))
+                .orderBy(keys.stream().map(key -> ascending ? cb.asc(key) : cb.desc(key)).toList());
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+}
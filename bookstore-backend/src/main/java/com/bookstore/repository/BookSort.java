@@ -0,0 +1,98 @@
+package com.bookstore.repository;
+
+import com.bookstore.model.Book;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Sorts the catalog listing accepts, each backed by an index on books (declared on {@code Book}) that
+ * ends in id. Every sort orders by its fields and then by id, all in one direction, so a page is read
+ * straight off the index and books with equal keys always come back in the same order.
+ */
+public enum BookSort {
+
+    ID(null, "id"),
+    TITLE("idx_books_title_id", "title"),
+    AUTHOR("idx_books_author_id", "author"),
+    PRICE("idx_books_price_id", "price"),
+    AUTHOR_TITLE("idx_books_author_title_id", "author", "title");
+
+    // Keyset cursors: how each sort field is read off a book and parsed back from the cursor
+    private static final Map<String, Function<Book, Object>> EXTRACTORS = Map.of(
+            "title", Book::getTitle,
+            "author", Book::getAuthor,
+            "price", Book::getPrice,
+            "id", Book::getId);
+    private static final Map<String, Function<String, Comparable<?>>> PARSERS = Map.of(
+            "title", value -> value,
+            "author", value -> value,
+            "price", BigDecimal::new,
+            "id", Long::valueOf);
+    private static final String VALUE_SEPARATOR = "\u001e";
+
+    private final String index;
+    private final List<String> fields;
+
+    BookSort(String index, String... fields) {
+        this.index = index;
+        this.fields = List.of(fields);
+    }
+
+    // "author,title" -> AUTHOR_TITLE; field names as they appear on Book, comma separated. A trailing
+    // id is the tiebreaker every sort has anyway, so "title,id" is TITLE
+    public static Optional<BookSort> of(String sortBy) {
+        if (sortBy == null) {
+            return Optional.empty();
+        }
+        List<String> requested = Arrays.stream(sortBy.split(",")).map(String::trim).toList();
+        List<String> keys = requested.size() > 1 && requested.get(requested.size() - 1).equals("id")
+                ? requested.subList(0, requested.size() - 1)
+                : requested;
+        return Arrays.stream(values()).filter(sort -> sort.fields.equals(keys)).findFirst();
+    }
+
+    // The primary key for ID, otherwise the secondary index serving this sort
+    public String index() {
+        return index;
+    }
+
+    public List<String> fields() {
+        return fields;
+    }
+
+    // Comma separated fields, as accepted by of()
+    public String key() {
+        return String.join(",", fields);
+    }
+
+    // The book's values for this sort's fields, as one cursor value
+    public String cursorValue(Book book) {
+        return String.join(VALUE_SEPARATOR,
+                fields.stream().map(field -> String.valueOf(EXTRACTORS.get(field).apply(book))).toList());
+    }
+
+    // Inverse of cursorValue(); IllegalArgumentException (or NumberFormatException) for a malformed value
+    public List<Comparable<?>> parseCursorValue(String value) {
+        String[] parts = value.split(VALUE_SEPARATOR, -1);
+        if (parts.length != fields.size()) {
+            throw new IllegalArgumentException("Expected " + fields.size() + " cursor values");
+        }
+        List<Comparable<?>> values = new ArrayList<>(parts.length);
+        for (int i = 0; i < parts.length; i++) {
+            values.add(PARSERS.get(fields.get(i)).apply(parts[i]));
+        }
+        return values;
+    }
+
+    public Sort toSort(Sort.Direction direction) {
+        Sort sort = Sort.by(direction, fields.toArray(String[]::new));
+        return this == ID ? sort : sort.and(Sort.by(direction, "id"));
+    }
+}
@@ -0,0 +1,45 @@
+package com.bookstore.repository;
+
+import com.bookstore.model.Book;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+
+// Catalog filters that combine with each other and with search; null arguments match every book
+public final class BookSpecifications {
+
+    private BookSpecifications() {
+    }
+
+    public static Specification<Book> hasGenreKey(String genreKey) {
+        return (book, query, cb) -> genreKey == null ? null : cb.equal(book.get("genreKey"), genreKey);
+    }
+
+    public static Specification<Book> priceBetween(BigDecimal minPrice, BigDecimal maxPrice) {
+        return (book, query, cb) -> {
+            if (minPrice != null && maxPrice != null) {
+                return cb.between(book.get("price"), minPrice, maxPrice);
+            }
+            if (minPrice != null) {
+                return cb.greaterThanOrEqualTo(book.get("price"), minPrice);
+            }
+            return maxPrice == null ? null : cb.lessThanOrEqualTo(book.get("price"), maxPrice);
+        };
+    }
+
+    public static Specification<Book> idIn(Collection<Long> ids) {
+        return (book, query, cb) -> book.get("id").in(ids);
+    }
+
+    // Same LIKE match the search endpoint has always used over title, author and genre
+    public static Specification<Book> matchesKeyword(String keyword) {
+        return (book, query, cb) -> {
+            String pattern = "%" + keyword.toLowerCase() + "%";
+            return cb.or(
+                    cb.like(cb.lower(book.get("title")), pattern),
+                    cb.like(cb.lower(book.get("author")), pattern),
+                    cb.like(cb.lower(book.get("genre")), pattern));
+        };
+    }
+}
@@ -0,0 +1,43 @@
+package com.bookstore.repository;
+
+import com.bookstore.model.OrderOutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OrderOutboxRepository extends JpaRepository<OrderOutboxEvent, Long> {
+
+    // Lock timeout -2 is SKIP LOCKED, so several dispatchers can drain the table without blocking each other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OrderOutboxEvent e WHERE e.status = :status AND e.availableAt <= :now ORDER BY e.id")
+    List<OrderOutboxEvent> lockByStatus(@Param("status") OrderOutboxEvent.Status status,
+                                        @Param("now") LocalDateTime now, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE OrderOutboxEvent e SET e.status = :status, e.availableAt = :availableAt, " +
+           "e.processedAt = :processedAt, e.lastError = :lastError WHERE e.id = :id AND e.attempts = :attempts")
+    int recordOutcome(@Param("id") Long id, @Param("attempts") int attempts,
+                      @Param("status") OrderOutboxEvent.Status status, @Param("availableAt") LocalDateTime availableAt,
+                      @Param("processedAt") LocalDateTime processedAt, @Param("lastError") String lastError);
+
+    @Modifying
+    @Query("DELETE FROM OrderOutboxEvent e WHERE e.status = :status AND e.processedAt < :cutoff")
+    int deleteByStatusBefore(@Param("status") OrderOutboxEvent.Status status, @Param("cutoff") LocalDateTime cutoff);
+
+    // Hibernate 6 cannot resolve a nested enum's constant in JPQL, so the status is a parameter
+    default List<OrderOutboxEvent> lockPending(LocalDateTime now, Pageable pageable) {
+        return lockByStatus(OrderOutboxEvent.Status.PENDING, now, pageable);
+    }
+
+    default int deleteProcessedBefore(LocalDateTime cutoff) {
+        return deleteByStatusBefore(OrderOutboxEvent.Status.DONE, cutoff);
+    }
+}
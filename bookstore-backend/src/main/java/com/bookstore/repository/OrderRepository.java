@@ -4,11 +4,79 @@ import com.bookstore.model.Order;
 import com.bookstore.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
+
+    @Override
+    @EntityGraph(attributePaths = "user")
+    Page<Order> findAll(Pageable pageable);
+
+    @EntityGraph(attributePaths = "user")
     Page<Order> findByUser(User user, Pageable pageable);
+
     Page<Order> findByUserId(Long userId, Pageable pageable);
+
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT o FROM Order o WHERE (:minTotal IS NULL OR o.totalAmount >= :minTotal) " +
+           "AND (:maxTotal IS NULL OR o.totalAmount <= :maxTotal)")
+    Page<Order> findByTotalAmountRange(@Param("minTotal") BigDecimal minTotal,
+                                       @Param("maxTotal") BigDecimal maxTotal, Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(o.id), 0) FROM Order o")
+    Long findMaxId();
+
+    // Null when every order has its total; a seek on idx_orders_total, which keeps nulls
+    @Query("SELECT MIN(o.id) FROM Order o WHERE o.totalAmount IS NULL")
+    Long findMinIdWithoutTotal();
+
+    @Modifying
+    @Query("UPDATE VERSIONED Order o SET " +
+           "o.totalAmount = (SELECT COALESCE(SUM(i.unitPrice * i.quantity), 0) FROM OrderItem i WHERE i.order = o), " +
+           "o.itemCount = (SELECT COALESCE(SUM(i.quantity), 0) FROM OrderItem i WHERE i.order = o) " +
+           "WHERE o.totalAmount IS NULL AND o.id > :fromId AND o.id <= :toId")
+    int backfillTotals(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    // Keyset pagination over (createdAt, id) descending; the Pageable only carries the limit. The
+    // createdAt <= bound repeats the OR, so the index scan starts at the cursor instead of the newest order
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT o FROM Order o ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findLatest(Pageable limit);
+
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT o FROM Order o WHERE o.createdAt <= :createdAt " +
+           "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findLatestBefore(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable limit);
+
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT o FROM Order o WHERE o.user = :user ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findLatestByUser(@Param("user") User user, Pageable limit);
+
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT o FROM Order o WHERE o.user = :user AND o.createdAt <= :createdAt AND " +
+           "(o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findLatestByUserBefore(@Param("user") User user, @Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") Long id, Pageable limit);
+
+    @EntityGraph(attributePaths = {"user", "orderItems", "orderItems.book"})
+    Optional<Order> findWithItemsById(Long id);
+
+    // Initializes items and books for an already loaded page of orders in one statement
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.orderItems i LEFT JOIN FETCH i.book " +
+           "WHERE o.id IN :ids")
+    List<Order> fetchItemsByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,19 @@
+package com.bookstore.search;
+
+import com.bookstore.model.Book;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface BookSearchEngine {
+
+    // Books matching the keyword and the filter (genre, price range, ...)
+    Page<Book> search(String keyword, Specification<Book> filter, Pageable pageable);
+
+    void index(Book book);
+
+    void remove(Long bookId);
+
+    // Re-reads the whole catalog after bulk changes made outside BookService
+    void reindex();
+}
@@ -0,0 +1,249 @@
+package com.bookstore.search;
+
+import com.bookstore.model.Book;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.BookSpecifications;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+// In-memory inverted index over title, author and genre. Query tokens match as
+// prefixes ("harry pot" finds "Harry Potter"); matched ids are then filtered and paged by the DB.
+// Falls back to the LIKE query while building or when a query matches too many books.
+@Component
+@ConditionalOnProperty(name = "bookstore.search.engine", havingValue = "index", matchIfMissing = true)
+@Slf4j
+public class InvertedIndexBookSearchEngine implements BookSearchEngine {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final BookRepository bookRepository;
+
+    @Value("${bookstore.search.max-candidates:5000}")
+    private int maxCandidates;
+
+    private final ConcurrentSkipListMap<String, Set<Long>> postings = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<Long, Set<String>> documentTokens = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    // One rebuild at a time; reindex() calls made while one runs queue at most one more
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "book-search-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    // ReentrantLock rather than synchronized: index() runs on request threads, see BoundedTtlCache
+    private final ReentrantLock lock = new ReentrantLock();
+    // Books indexed or removed while a rebuild is reading the catalog; its older copies are skipped
+    private Set<Long> changedDuringRebuild;
+
+    public InvertedIndexBookSearchEngine(BookRepository bookRepository) {
+        this.bookRepository = bookRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        reindex();
+    }
+
+    @Override
+    public void reindex() {
+        if (rebuildQueued.compareAndSet(false, true)) {
+            rebuilder.execute(this::rebuild);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    // Runs on the rebuild thread, or directly from tests and benchmarks
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            rebuildQueued.set(false);
+            rebuildCatalog();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void rebuildCatalog() {
+        long start = System.currentTimeMillis();
+        long lastId = 0L;
+        int indexed = 0;
+        lock.lock();
+        try {
+            changedDuringRebuild = new HashSet<>();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            Slice<Book> batch;
+            do {
+                batch = bookRepository.findByIdGreaterThan(lastId,
+                        PageRequest.of(0, REBUILD_BATCH_SIZE, Sort.by("id")));
+                lock.lock();
+                try {
+                    for (Book book : batch) {
+                        // A book written since this batch was read is already indexed with newer data
+                        if (!changedDuringRebuild.contains(book.getId())) {
+                            indexLocked(book);
+                        }
+                        lastId = book.getId();
+                        indexed++;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            } while (batch.hasNext());
+        } finally {
+            lock.lock();
+            try {
+                changedDuringRebuild = null;
+            } finally {
+                lock.unlock();
+            }
+        }
+        ready = true;
+        log.info("Search index built for {} books ({} tokens) in {} ms",
+                indexed, postings.size(), System.currentTimeMillis() - start);
+    }
+
+    @Override
+    public Page<Book> search(String keyword, Specification<Book> filter, Pageable pageable) {
+        List<String> queryTokens = tokenize(keyword);
+        if (queryTokens.isEmpty()) {
+            return bookRepository.findAll(filter, pageable);
+        }
+        if (!ready) {
+            return bookRepository.findAll(BookSpecifications.matchesKeyword(keyword).and(filter), pageable);
+        }
+
+        Set<Long> matches = null;
+        for (String token : queryTokens) {
+            Set<Long> tokenMatches = prefixMatches(token, matches);
+            matches = tokenMatches;
+            if (matches.isEmpty()) {
+                return Page.empty(pageable);
+            }
+            if (matches.size() > maxCandidates) {
+                return bookRepository.findAll(BookSpecifications.matchesKeyword(keyword).and(filter), pageable);
+            }
+        }
+        return bookRepository.findAll(BookSpecifications.idIn(matches).and(filter), pageable);
+    }
+
+    @Override
+    public void index(Book book) {
+        lock.lock();
+        try {
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(book.getId());
+            }
+            indexLocked(book);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long bookId) {
+        lock.lock();
+        try {
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(bookId);
+            }
+            Set<String> tokens = documentTokens.remove(bookId);
+            if (tokens != null) {
+                tokens.forEach(token -> removePosting(token, bookId));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void indexLocked(Book book) {
+        Set<String> tokens = new HashSet<>();
+        tokens.addAll(tokenize(book.getTitle()));
+        tokens.addAll(tokenize(book.getAuthor()));
+        tokens.addAll(tokenize(book.getGenre()));
+
+        Set<String> previous = documentTokens.put(book.getId(), tokens);
+        if (previous != null) {
+            for (String token : previous) {
+                if (!tokens.contains(token)) {
+                    removePosting(token, book.getId());
+                }
+            }
+        }
+        for (String token : tokens) {
+            postings.computeIfAbsent(token, t -> ConcurrentHashMap.newKeySet()).add(book.getId());
+        }
+    }
+
+    // Tokens the book is indexed under, empty when it is not indexed
+    Set<String> tokensOf(Long bookId) {
+        return documentTokens.getOrDefault(bookId, Set.of());
+    }
+
+    // Union of postings for every indexed token starting with the prefix,
+    // restricted to the ids already matched by earlier query tokens
+    private Set<Long> prefixMatches(String prefix, Set<Long> restrictTo) {
+        Set<Long> result = new HashSet<>();
+        for (Set<Long> ids : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            for (Long id : ids) {
+                if (restrictTo == null || restrictTo.contains(id)) {
+                    result.add(id);
+                }
+            }
+            if (restrictTo == null && result.size() > maxCandidates) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private void removePosting(String token, Long bookId) {
+        postings.computeIfPresent(token, (t, ids) -> {
+            ids.remove(bookId);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
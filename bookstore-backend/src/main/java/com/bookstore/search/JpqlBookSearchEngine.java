@@ -0,0 +1,37 @@
+package com.bookstore.search;
+
+import com.bookstore.model.Book;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.BookSpecifications;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+// Plain LIKE query over title, author and genre; no index to keep in sync
+@Component
+@ConditionalOnProperty(name = "bookstore.search.engine", havingValue = "jpql")
+@RequiredArgsConstructor
+public class JpqlBookSearchEngine implements BookSearchEngine {
+
+    private final BookRepository bookRepository;
+
+    @Override
+    public Page<Book> search(String keyword, Specification<Book> filter, Pageable pageable) {
+        return bookRepository.findAll(BookSpecifications.matchesKeyword(keyword).and(filter), pageable);
+    }
+
+    @Override
+    public void index(Book book) {
+    }
+
+    @Override
+    public void remove(Long bookId) {
+    }
+
+    @Override
+    public void reindex() {
+    }
+}
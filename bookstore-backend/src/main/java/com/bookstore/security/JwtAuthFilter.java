@@ -1,14 +1,15 @@
 package com.bookstore.security;
 
+import com.bookstore.metrics.LatencyTimer;
+import com.bookstore.metrics.MetricsRegistry;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -16,11 +17,18 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 
 @Component
-@RequiredArgsConstructor
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
+    private final PrincipalCache principalCache;
+    private final LatencyTimer filterTimer;
+
+    public JwtAuthFilter(JwtUtil jwtUtil, PrincipalCache principalCache, MetricsRegistry metricsRegistry) {
+        this.jwtUtil = jwtUtil;
+        this.principalCache = principalCache;
+        this.filterTimer = metricsRegistry.timer("jwt_filter_seconds",
+                "Time spent authenticating the bearer token, excluding the rest of the chain");
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -29,25 +37,25 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
 
         final String authHeader = request.getHeader("Authorization");
-        final String jwt;
-        final String userEmail;
-
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            filterChain.doFilter(request, response);
-            return;
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            long start = System.nanoTime();
+            authenticate(authHeader.substring(7), request);
+            filterTimer.record(System.nanoTime() - start);
         }
+        filterChain.doFilter(request, response);
+    }
 
-        jwt = authHeader.substring(7);
+    private void authenticate(String jwt, HttpServletRequest request) {
+        final Claims claims;
         try {
-            userEmail = jwtUtil.extractUsername(jwt);
+            claims = jwtUtil.extractAllClaims(jwt);
         } catch (Exception e) {
-            filterChain.doFilter(request, response);
             return;
         }
 
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-            if (jwtUtil.validateToken(jwt, userDetails)) {
+        if (claims.getSubject() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            UserDetails userDetails = principalCache.loadPrincipal(claims);
+            if (userDetails != null && jwtUtil.validateToken(claims, userDetails)) {
                 UsernamePasswordAuthenticationToken authToken =
                         new UsernamePasswordAuthenticationToken(
                                 userDetails, null, userDetails.getAuthorities());
@@ -55,6 +63,5 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                 SecurityContextHolder.getContext().setAuthentication(authToken);
             }
         }
-        filterChain.doFilter(request, response);
     }
 }
@@ -0,0 +1,88 @@
+package com.bookstore.security;
+
+import com.bookstore.exception.ServiceUnavailableException;
+import com.bookstore.metrics.LatencyTimer;
+import com.bookstore.metrics.MetricsRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Runs BCrypt-bound auth work on a small dedicated pool so a login burst cannot occupy every
+// request thread; once the queue is full new work is rejected instead of piling up
+@Component
+@Slf4j
+public class PasswordHashingExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final LongAdder rejected = new LongAdder();
+    private final LatencyTimer queueTimer;
+    private final LatencyTimer runTimer;
+
+    public PasswordHashingExecutor(MetricsRegistry metricsRegistry,
+                                   @Value("${bookstore.auth.hashing.threads:0}") int threads,
+                                   @Value("${bookstore.auth.hashing.queue-capacity:200}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "password-hashing-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.queueTimer = metricsRegistry.timer("password_hashing_queue_seconds",
+                "Time auth work waited for a hashing thread");
+        this.runTimer = metricsRegistry.timer("password_hashing_seconds", "Time spent running auth work");
+        log.info("Password hashing executor: {} threads, queue capacity {}", poolSize, queueCapacity);
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        long submitted = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                long started = System.nanoTime();
+                queueTimer.record(started - submitted);
+                try {
+                    return task.get();
+                } finally {
+                    runTimer.record(System.nanoTime() - started);
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServiceUnavailableException("Authentication is busy, please retry shortly");
+        }
+    }
+
+    public int activeCount() {
+        return executor.getActiveCount();
+    }
+
+    public int queueSize() {
+        return executor.getQueue().size();
+    }
+
+    public int poolSize() {
+        return executor.getMaximumPoolSize();
+    }
+
+    public long completedCount() {
+        return executor.getCompletedTaskCount();
+    }
+
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
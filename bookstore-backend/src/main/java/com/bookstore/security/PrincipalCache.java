@@ -0,0 +1,76 @@
+package com.bookstore.security;
+
+import com.bookstore.cache.BoundedTtlCache;
+import com.bookstore.cache.CacheStats;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Resolves the principal for an authenticated request without a users-table query per request
+@Component
+public class PrincipalCache {
+
+    private final UserDetailsService userDetailsService;
+    private final BoundedTtlCache<String, UserDetails> principals;
+    private final boolean stateless;
+    private final long tokenLifetimeMillis;
+
+    // email -> time of the last role/password change; older tokens are rejected in stateless mode
+    private final Map<String, Long> credentialsChangedAt = new ConcurrentHashMap<>();
+
+    public PrincipalCache(UserDetailsService userDetailsService,
+                          @Value("${jwt.stateless-principal:false}") boolean stateless,
+                          @Value("${jwt.principal-cache.max-size:10000}") int maxSize,
+                          @Value("${jwt.principal-cache.ttl-seconds:60}") long ttlSeconds,
+                          @Value("${jwt.expiration}") long tokenLifetimeMillis) {
+        this.userDetailsService = userDetailsService;
+        this.stateless = stateless;
+        this.tokenLifetimeMillis = tokenLifetimeMillis;
+        this.principals = new BoundedTtlCache<>("principals", maxSize, ttlSeconds * 1000);
+    }
+
+    /**
+     * Stateless mode builds the principal from the verified role claim; tokens
+     * without one fall back to the cached database lookup. Returns null when the
+     * token predates a credential change.
+     */
+    public UserDetails loadPrincipal(Claims claims) {
+        String email = claims.getSubject();
+        if (stateless) {
+            String role = claims.get("role", String.class);
+            if (role != null) {
+                if (isRevoked(email, claims.getIssuedAt())) {
+                    return null;
+                }
+                return new User(email, "", List.of(new SimpleGrantedAuthority("ROLE_" + role)));
+            }
+        }
+        return principals.getOrLoad(email, userDetailsService::loadUserByUsername);
+    }
+
+    public void invalidate(String email) {
+        long now = System.currentTimeMillis();
+        principals.invalidate(email);
+        credentialsChangedAt.put(email, now);
+        credentialsChangedAt.values().removeIf(changedAt -> changedAt < now - tokenLifetimeMillis);
+    }
+
+    public CacheStats stats() {
+        return principals.stats();
+    }
+
+    // JWT iat has second precision, so only tokens issued before that second are revoked
+    private boolean isRevoked(String email, Date issuedAt) {
+        Long changedAt = credentialsChangedAt.get(email);
+        return changedAt != null && (issuedAt == null || issuedAt.getTime() < changedAt / 1000 * 1000);
+    }
+}
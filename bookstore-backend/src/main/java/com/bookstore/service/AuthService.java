@@ -1,10 +1,12 @@
 package com.bookstore.service;
 
+import com.bookstore.datasource.ReadYourWrites;
 import com.bookstore.dto.AuthDto;
 import com.bookstore.exception.BadRequestException;
 import com.bookstore.model.User;
 import com.bookstore.repository.UserRepository;
 import com.bookstore.security.JwtUtil;
+import com.bookstore.security.PasswordHashingExecutor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -15,6 +17,7 @@ import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
@@ -25,44 +28,51 @@ public class AuthService {
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authenticationManager;
     private final UserDetailsService userDetailsService;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final ReadYourWrites readYourWrites;
 
-    public AuthDto.AuthResponse register(AuthDto.RegisterRequest request) {
+    // BCrypt runs on the hashing executor; the cheap duplicate-email check fails fast on the caller
+    public CompletableFuture<AuthDto.AuthResponse> register(AuthDto.RegisterRequest request) {
         if (userRepository.existsByEmail(request.getEmail())) {
             throw new BadRequestException("Email already registered: " + request.getEmail());
         }
 
-        User.Role role;
-        try {
-            role = request.getRole() != null ? User.Role.valueOf(request.getRole().toUpperCase()) : User.Role.CUSTOMER;
-        } catch (IllegalArgumentException e) {
-            role = User.Role.CUSTOMER;
-        }
-
-        User user = User.builder()
-                .name(request.getName())
-                .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword()))
-                .role(role)
-                .build();
+        User.Role role = parseRole(request.getRole());
+        return passwordHashingExecutor.submit(() -> {
+            User user = User.builder()
+                    .name(request.getName())
+                    .email(request.getEmail())
+                    .password(passwordEncoder.encode(request.getPassword()))
+                    .role(role)
+                    .build();
 
-        userRepository.save(user);
+            userRepository.save(user);
+            // The new token is used right away, before a replica may have the user
+            readYourWrites.wrote(user.getEmail());
+            return toAuthResponse(user);
+        });
+    }
 
-        UserDetails userDetails = userDetailsService.loadUserByUsername(user.getEmail());
-        Map<String, Object> claims = new HashMap<>();
-        claims.put("role", user.getRole().name());
-        claims.put("name", user.getName());
-        String token = jwtUtil.generateToken(userDetails, claims);
+    public CompletableFuture<AuthDto.AuthResponse> login(AuthDto.LoginRequest request) {
+        return passwordHashingExecutor.submit(() -> {
+            authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword()));
 
-        return new AuthDto.AuthResponse(token, user.getEmail(), user.getName(), user.getRole().name());
+            User user = userRepository.findByEmail(request.getEmail())
+                    .orElseThrow(() -> new BadRequestException("User not found"));
+            return toAuthResponse(user);
+        });
     }
 
-    public AuthDto.AuthResponse login(AuthDto.LoginRequest request) {
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword()));
-
-        User user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new BadRequestException("User not found"));
+    private User.Role parseRole(String role) {
+        try {
+            return role != null ? User.Role.valueOf(role.toUpperCase()) : User.Role.CUSTOMER;
+        } catch (IllegalArgumentException e) {
+            return User.Role.CUSTOMER;
+        }
+    }
 
+    private AuthDto.AuthResponse toAuthResponse(User user) {
         UserDetails userDetails = userDetailsService.loadUserByUsername(user.getEmail());
         Map<String, Object> claims = new HashMap<>();
         claims.put("role", user.getRole().name());
@@ -0,0 +1,408 @@
+package com.bookstore.service;
+
+import com.bookstore.cache.BoundedTtlCache;
+import com.bookstore.catalog.CatalogSnapshotService;
+import com.bookstore.dto.BookDto;
+import com.bookstore.exception.BadRequestException;
+import com.bookstore.facet.GenreFacetIndex;
+import com.bookstore.model.Book;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.search.BookSearchEngine;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.*;
+
+@Service
+@Slf4j
+public class BookImportService {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO books (title, author, genre, isbn, price, description, stock_quantity, image_url, genre_key, " +
+            "version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+    private static final String UPDATE_SQL =
+            "UPDATE books SET title = ?, author = ?, genre = ?, isbn = ?, price = ?, description = ?, " +
+            "stock_quantity = ?, image_url = ?, genre_key = ?, version = version + 1 WHERE id = ?";
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    public enum Format { CSV, NDJSON }
+
+    private final BookRepository bookRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final BookSearchEngine bookSearchEngine;
+    private final GenreFacetIndex genreFacetIndex;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final BoundedTtlCache<Long, BookDto.BookResponse> bookResponseCache;
+    private final CatalogVersions catalogVersions;
+    private final int batchSize;
+
+    public BookImportService(BookRepository bookRepository,
+                             JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             Validator validator,
+                             ObjectMapper objectMapper,
+                             BookSearchEngine bookSearchEngine,
+                             GenreFacetIndex genreFacetIndex,
+                             CatalogSnapshotService catalogSnapshotService,
+                             BoundedTtlCache<Long, BookDto.BookResponse> bookResponseCache,
+                             CatalogVersions catalogVersions,
+                             @Value("${bookstore.import.batch-size:1000}") int batchSize) {
+        this.bookRepository = bookRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.bookSearchEngine = bookSearchEngine;
+        this.genreFacetIndex = genreFacetIndex;
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.bookResponseCache = bookResponseCache;
+        this.catalogVersions = catalogVersions;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Reads the upload one row at a time and upserts by ISBN in JDBC batches of
+     * bookstore.import.batch-size, one transaction per batch. Only the current
+     * batch and the first 100 row errors are held in memory.
+     */
+    public BookDto.ImportReport importBooks(InputStream input, Format format) throws IOException {
+        long start = System.currentTimeMillis();
+        BookDto.ImportReport report = new BookDto.ImportReport();
+        List<ImportRow> batch = new ArrayList<>(batchSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            RowReader rows = format == Format.CSV ? new CsvRowReader(reader) : new NdjsonRowReader(reader);
+            ImportRow row;
+            while ((row = rows.next()) != null) {
+                report.setRowsRead(report.getRowsRead() + 1);
+                if (row.error == null) {
+                    row.error = validate(row.request);
+                }
+                if (row.error != null) {
+                    recordError(report, row.number, row.error);
+                    continue;
+                }
+                batch.add(row);
+                if (batch.size() >= batchSize) {
+                    writeBatch(batch, report);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(batch, report);
+        }
+
+        if (report.getInserted() + report.getUpdated() > 0) {
+            bookSearchEngine.reindex();
+            genreFacetIndex.rebuildInBackground();
+            catalogSnapshotService.catalogChanged();
+        }
+        report.setElapsedMillis(System.currentTimeMillis() - start);
+        report.setRowsPerSecond(report.getRowsRead() * 1000.0 / Math.max(1, report.getElapsedMillis()));
+        log.info("Book import finished: {} rows, {} inserted, {} updated, {} failed in {} ms",
+                report.getRowsRead(), report.getInserted(), report.getUpdated(), report.getFailed(),
+                report.getElapsedMillis());
+        return report;
+    }
+
+    private String validate(BookDto.BookRequest request) {
+        Set<ConstraintViolation<BookDto.BookRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        StringJoiner message = new StringJoiner(", ");
+        violations.forEach(v -> message.add(v.getPropertyPath() + ": " + v.getMessage()));
+        return message.toString();
+    }
+
+    private void writeBatch(List<ImportRow> batch, BookDto.ImportReport report) {
+        // Last row wins when the same ISBN appears twice in one batch; the earlier one is reported
+        Map<String, ImportRow> byIsbn = new LinkedHashMap<>();
+        List<ImportRow> rows = new ArrayList<>(batch.size());
+        for (ImportRow row : batch) {
+            String isbn = blankToNull(row.request.getIsbn());
+            ImportRow superseded = isbn == null ? null : byIsbn.put(isbn, row);
+            if (superseded != null) {
+                rows.remove(superseded);
+                report.setDuplicates(report.getDuplicates() + 1);
+                if (report.getErrors().size() < MAX_REPORTED_ERRORS) {
+                    report.getErrors().add(new BookDto.ImportError(superseded.number,
+                            "Duplicate ISBN " + isbn + ", skipped for row " + row.number));
+                }
+            }
+            rows.add(row);
+        }
+
+        try {
+            count(report, writeRows(rows));
+        } catch (RuntimeException e) {
+            // One bad row rejects the whole batch; retry row by row so only the bad rows fail
+            log.warn("Book import batch failed, retrying its {} rows one by one: {}", rows.size(), e.getMessage());
+            for (ImportRow row : rows) {
+                try {
+                    count(report, writeRows(List.of(row)));
+                } catch (RuntimeException rowFailure) {
+                    recordError(report, row.number, "Rejected by database: " + rootMessage(rowFailure));
+                }
+            }
+        }
+    }
+
+    // Upserts the rows, which have distinct ISBNs, in one transaction; returns {inserted, updated}
+    private int[] writeRows(List<ImportRow> rows) {
+        int[] written = transactionTemplate.execute(status -> {
+            Map<String, ImportRow> byIsbn = new HashMap<>();
+            for (ImportRow row : rows) {
+                String isbn = blankToNull(row.request.getIsbn());
+                if (isbn != null) {
+                    byIsbn.put(isbn, row);
+                }
+            }
+            Map<String, Long> existingIds = new HashMap<>();
+            if (!byIsbn.isEmpty()) {
+                for (Object[] isbnAndId : bookRepository.findIdsByIsbnIn(byIsbn.keySet())) {
+                    existingIds.put((String) isbnAndId[0], (Long) isbnAndId[1]);
+                }
+            }
+
+            List<ImportRow> inserts = new ArrayList<>();
+            List<Map.Entry<Long, ImportRow>> updates = new ArrayList<>();
+            for (ImportRow row : rows) {
+                Long id = existingIds.get(blankToNull(row.request.getIsbn()));
+                if (id == null) {
+                    inserts.add(row);
+                } else {
+                    updates.add(Map.entry(id, row));
+                }
+            }
+
+            if (!inserts.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, inserts, inserts.size(),
+                        (ps, row) -> bindBook(ps, row.request));
+            }
+            if (!updates.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_SQL, updates, updates.size(), (ps, update) -> {
+                    bindBook(ps, update.getValue().request);
+                    ps.setLong(10, update.getKey());
+                });
+                updates.forEach(update -> bookResponseCache.invalidate(update.getKey()));
+                updates.forEach(update -> catalogVersions.bookChanged(update.getKey()));
+            }
+            catalogVersions.catalogChanged();
+            return new int[]{inserts.size(), updates.size()};
+        });
+        // Listings go to the database from here; the snapshot is rebuilt once the import ends
+        catalogSnapshotService.markStale();
+        return written;
+    }
+
+    private static void count(BookDto.ImportReport report, int[] written) {
+        report.setInserted(report.getInserted() + written[0]);
+        report.setUpdated(report.getUpdated() + written[1]);
+    }
+
+    private static String rootMessage(RuntimeException e) {
+        Throwable cause = e;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage();
+    }
+
+    private void bindBook(PreparedStatement ps, BookDto.BookRequest request) throws SQLException {
+        ps.setString(1, request.getTitle());
+        ps.setString(2, request.getAuthor());
+        setNullableString(ps, 3, request.getGenre());
+        setNullableString(ps, 4, request.getIsbn());
+        ps.setBigDecimal(5, request.getPrice());
+        setNullableString(ps, 6, request.getDescription());
+        ps.setInt(7, request.getStockQuantity());
+        setNullableString(ps, 8, request.getImageUrl());
+        setNullableString(ps, 9, Book.genreKeyOf(request.getGenre()));
+    }
+
+    private void setNullableString(PreparedStatement ps, int index, String value) throws SQLException {
+        String normalized = blankToNull(value);
+        if (normalized == null) {
+            ps.setNull(index, Types.VARCHAR);
+        } else {
+            ps.setString(index, normalized);
+        }
+    }
+
+    private void recordError(BookDto.ImportReport report, long rowNumber, String message) {
+        report.setFailed(report.getFailed() + 1);
+        if (report.getErrors().size() < MAX_REPORTED_ERRORS) {
+            report.getErrors().add(new BookDto.ImportError(rowNumber, message));
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return (value == null || value.isBlank()) ? null : value;
+    }
+
+    private static class ImportRow {
+        private final long number;
+        private final BookDto.BookRequest request;
+        private String error;
+
+        ImportRow(long number, BookDto.BookRequest request, String error) {
+            this.number = number;
+            this.request = request;
+            this.error = error;
+        }
+    }
+
+    private interface RowReader {
+        ImportRow next() throws IOException;
+    }
+
+    private class NdjsonRowReader implements RowReader {
+        private final BufferedReader reader;
+        private long lineNumber;
+
+        NdjsonRowReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    return new ImportRow(lineNumber, objectMapper.readValue(line, BookDto.BookRequest.class), null);
+                } catch (JsonProcessingException e) {
+                    return new ImportRow(lineNumber, null, "Invalid JSON: " + e.getOriginalMessage());
+                }
+            }
+            return null;
+        }
+    }
+
+    // RFC 4180 style: header row with column names, quoted fields may contain commas, quotes and newlines
+    private static class CsvRowReader implements RowReader {
+        private final BufferedReader reader;
+        private final Map<String, Integer> columns = new HashMap<>();
+        private long lineNumber;
+
+        CsvRowReader(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            List<String> header = readRecord();
+            if (header == null) {
+                return;
+            }
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(normalizeColumn(header.get(i)), i);
+            }
+            if (!columns.containsKey("title") || !columns.containsKey("author")) {
+                throw new BadRequestException("CSV header must name at least the title and author columns");
+            }
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            List<String> record;
+            do {
+                record = readRecord();
+                if (record == null) {
+                    return null;
+                }
+            } while (record.size() == 1 && record.get(0).isBlank());
+
+            long rowNumber = lineNumber;
+            BookDto.BookRequest request = new BookDto.BookRequest();
+            try {
+                request.setTitle(field(record, "title"));
+                request.setAuthor(field(record, "author"));
+                request.setGenre(field(record, "genre"));
+                request.setIsbn(field(record, "isbn"));
+                request.setDescription(field(record, "description"));
+                request.setImageUrl(field(record, "imageurl"));
+                String price = field(record, "price");
+                request.setPrice(price == null || price.isBlank() ? null : new BigDecimal(price.trim()));
+                String stock = field(record, "stockquantity");
+                request.setStockQuantity(stock == null || stock.isBlank() ? null : Integer.valueOf(stock.trim()));
+            } catch (NumberFormatException e) {
+                return new ImportRow(rowNumber, request, "Invalid number in price or stockQuantity");
+            }
+            return new ImportRow(rowNumber, request, null);
+        }
+
+        private String field(List<String> record, String column) {
+            Integer index = columns.get(column);
+            return index == null || index >= record.size() ? null : record.get(index);
+        }
+
+        private List<String> readRecord() throws IOException {
+            String line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNumber++;
+            List<String> fields = new ArrayList<>();
+            StringBuilder current = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                for (int i = 0; i < line.length(); i++) {
+                    char c = line.charAt(i);
+                    if (quoted) {
+                        if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                            current.append('"');
+                            i++;
+                        } else if (c == '"') {
+                            quoted = false;
+                        } else {
+                            current.append(c);
+                        }
+                    } else if (c == '"') {
+                        quoted = true;
+                    } else if (c == ',') {
+                        fields.add(current.toString());
+                        current.setLength(0);
+                    } else {
+                        current.append(c);
+                    }
+                }
+                if (!quoted) {
+                    break;
+                }
+                line = reader.readLine();
+                if (line == null) {
+                    break;
+                }
+                lineNumber++;
+                current.append('\n');
+            }
+            fields.add(current.toString());
+            return fields;
+        }
+
+        private static String normalizeColumn(String name) {
+            return name.trim().replace("_", "").replace("\uFEFF", "").toLowerCase(Locale.ROOT);
+        }
+    }
+}
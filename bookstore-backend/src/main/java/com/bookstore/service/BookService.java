@@ -1,33 +1,135 @@
 package com.bookstore.service;
 
+import com.bookstore.cache.BoundedTtlCache;
+import com.bookstore.catalog.CatalogSnapshotService;
+import com.bookstore.datasource.ReadRoute;
 import com.bookstore.dto.BookDto;
+import com.bookstore.dto.SliceResponse;
+import com.bookstore.exception.BadRequestException;
+import com.bookstore.exception.ConflictException;
 import com.bookstore.exception.ResourceNotFoundException;
+import com.bookstore.facet.GenreFacetIndex;
 import com.bookstore.model.Book;
 import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.BookSort;
+import com.bookstore.repository.BookSpecifications;
+import com.bookstore.search.BookSearchEngine;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
 @Service
 @RequiredArgsConstructor
 public class BookService {
 
     private final BookRepository bookRepository;
+    private final BookSearchEngine bookSearchEngine;
+    private final BoundedTtlCache<Long, BookDto.BookResponse> bookResponseCache;
+    private final CatalogVersions catalogVersions;
+    private final OptimisticRetry optimisticRetry;
+    private final GenreFacetIndex genreFacetIndex;
+    private final CatalogSnapshotService catalogSnapshotService;
+
+    // Checked before any query is built, so an unindexed or misspelled sort never reaches the database
+    public Sort listingSort(String sortBy, String sortDir) {
+        return bookSort(sortBy).toSort(direction(sortDir));
+    }
+
+    private static BookSort bookSort(String sortBy) {
+        return BookSort.of(sortBy).orElseThrow(() -> new BadRequestException(
+                "Unsupported sort: " + sortBy + " (supported: " + Arrays.stream(BookSort.values())
+                        .map(BookSort::key)
+                        .collect(Collectors.joining(" | ")) + ")"));
+    }
+
+    /**
+     * Catalog listing: genre and price range always apply, and combine with the keyword search when
+     * one is given. Genres are matched on their normalized key, so "Science  Fiction" finds
+     * "science fiction".
+     */
+    public Page<Book> findBooks(String search, String genre, BigDecimal minPrice, BigDecimal maxPrice,
+                                Pageable pageable) {
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new BadRequestException("minPrice must not be greater than maxPrice");
+        }
+        Specification<Book> filter = BookSpecifications.hasGenreKey(Book.genreKeyOf(genre))
+                .and(BookSpecifications.priceBetween(minPrice, maxPrice));
+        if (search != null && !search.isBlank()) {
+            return bookSearchEngine.search(search, filter, pageable);
+        }
+        return bookRepository.findAll(filter, pageable);
+    }
+
+    // Unfiltered listings come from the catalog snapshot when it is enabled and current
+    public Page<BookDto.BookResponse> listBooks(String search, String genre, BigDecimal minPrice,
+                                                BigDecimal maxPrice, Pageable pageable) {
+        boolean unfiltered = (search == null || search.isBlank()) && Book.genreKeyOf(genre) == null
+                && minPrice == null && maxPrice == null;
+        if (unfiltered) {
+            Optional<Page<BookDto.BookResponse>> page = catalogSnapshotService.page(pageable);
+            if (page.isPresent()) {
+                return page.get();
+            }
+        }
+        return findBooks(search, genre, minPrice, maxPrice, pageable).map(this::toResponse);
+    }
 
-    public Page<Book> getAllBooks(Pageable pageable) {
-        return bookRepository.findAll(pageable);
+    public List<BookDto.GenreFacet> getGenreFacets() {
+        return genreFacetIndex.facets();
     }
 
-    public Page<Book> searchBooks(String keyword, Pageable pageable) {
-        if (keyword == null || keyword.isBlank()) {
-            return bookRepository.findAll(pageable);
+    public SliceResponse<BookDto.BookResponse> getBooksAfter(String after, int size, String sortBy,
+                                                             String sortDir, String genre) {
+        // Same sorts as the offset listing, so every cursor query is served by an index
+        BookSort sort = bookSort(sortBy);
+        PageLimits.checkSize(size);
+        Sort.Direction direction = direction(sortDir);
+        String sortKey = sort.key() + ":" + direction.name().toLowerCase();
+
+        List<Comparable<?>> afterValues = null;
+        Long afterId = null;
+        if (after != null && !after.isBlank()) {
+            KeysetCursor cursor = KeysetCursor.decode(after, sortKey);
+            try {
+                afterValues = sort.parseCursorValue(cursor.value());
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Invalid cursor value for sort: " + sortKey);
+            }
+            afterId = cursor.id();
+        }
+
+        List<Book> books = bookRepository.findAfter(sort, direction, afterValues, afterId,
+                Book.genreKeyOf(genre), size + 1);
+        boolean hasNext = books.size() > size;
+        List<Book> content = hasNext ? books.subList(0, size) : books;
+        String nextCursor = null;
+        if (hasNext) {
+            Book last = content.get(content.size() - 1);
+            nextCursor = new KeysetCursor(sortKey, sort.cursorValue(last), last.getId()).encode();
         }
-        return bookRepository.searchBooks(keyword, pageable);
+        return new SliceResponse<>(content.stream().map(this::toResponse).toList(), content.size(), hasNext,
+                nextCursor);
     }
 
-    public Page<Book> getBooksByGenre(String genre, Pageable pageable) {
-        return bookRepository.findByGenreIgnoreCase(genre, pageable);
+    private static Sort.Direction direction(String sortDir) {
+        if (sortDir.equalsIgnoreCase("asc")) {
+            return Sort.Direction.ASC;
+        }
+        if (sortDir.equalsIgnoreCase("desc")) {
+            return Sort.Direction.DESC;
+        }
+        throw new BadRequestException("sortDir must be asc or desc");
     }
 
     public Book getBookById(Long id) {
@@ -35,6 +137,11 @@ public class BookService {
                 .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + id));
     }
 
+    // Cached for the TTL, so loaded from the primary: a lagging replica would keep serving the old book
+    public BookDto.BookResponse getBookResponseById(Long id) {
+        return bookResponseCache.getOrLoad(id, key -> ReadRoute.primary(() -> toResponse(getBookById(key))));
+    }
+
     // Convert blank string to null to avoid UNIQUE constraint violation on isbn
     private String blankToNull(String value) {
         return (value == null || value.isBlank()) ? null : value;
@@ -51,27 +158,57 @@ public class BookService {
                 .stockQuantity(request.getStockQuantity())
                 .imageUrl(blankToNull(request.getImageUrl()))
                 .build();
-        return bookRepository.save(book);
+        Book saved = bookRepository.save(book);
+        bookSearchEngine.index(saved);
+        genreFacetIndex.put(saved);
+        catalogSnapshotService.catalogChanged();
+        catalogVersions.bookChanged(saved.getId());
+        return saved;
     }
 
+    // A full replacement, so safe to re-run on a version conflict unless the client pinned a version.
+    // Not when stock moved since the first attempt read it: the retry would undo a checkout's decrement
     public Book updateBook(Long id, BookDto.BookRequest request) {
-        Book book = getBookById(id);
-        book.setTitle(request.getTitle());
-        book.setAuthor(request.getAuthor());
-        book.setGenre(blankToNull(request.getGenre()));
-        book.setIsbn(blankToNull(request.getIsbn()));
-        book.setPrice(request.getPrice());
-        book.setDescription(blankToNull(request.getDescription()));
-        book.setStockQuantity(request.getStockQuantity());
-        book.setImageUrl(blankToNull(request.getImageUrl()));
-        return bookRepository.save(book);
+        AtomicReference<Integer> stockRead = new AtomicReference<>();
+        Book saved = optimisticRetry.execute("Book " + id, () -> {
+            Book book = getBookById(id);
+            OptimisticRetry.checkVersion("Book", id, request.getVersion(), book.getVersion());
+            stockRead.compareAndSet(null, book.getStockQuantity());
+            if (!Objects.equals(stockRead.get(), book.getStockQuantity())) {
+                throw new ConflictException("Stock of book " + id + " changed during the update, from "
+                        + stockRead.get() + " to " + book.getStockQuantity() + "; reload and retry");
+            }
+            book.setTitle(request.getTitle());
+            book.setAuthor(request.getAuthor());
+            book.setGenre(blankToNull(request.getGenre()));
+            book.setIsbn(blankToNull(request.getIsbn()));
+            book.setPrice(request.getPrice());
+            book.setDescription(blankToNull(request.getDescription()));
+            book.setStockQuantity(request.getStockQuantity());
+            book.setImageUrl(blankToNull(request.getImageUrl()));
+            return bookRepository.saveAndFlush(book);
+        });
+        bookSearchEngine.index(saved);
+        genreFacetIndex.put(saved);
+        catalogSnapshotService.catalogChanged();
+        bookResponseCache.invalidate(id);
+        catalogVersions.bookChanged(id);
+        return saved;
     }
 
     public void deleteBook(Long id) {
-        Book book = getBookById(id);
-        bookRepository.delete(book);
+        optimisticRetry.execute("Book " + id, () -> {
+            bookRepository.delete(getBookById(id));
+            return null;
+        });
+        bookSearchEngine.remove(id);
+        genreFacetIndex.remove(id);
+        catalogSnapshotService.catalogChanged();
+        bookResponseCache.invalidate(id);
+        catalogVersions.bookChanged(id);
     }
 
+
     public BookDto.BookResponse toResponse(Book book) {
         BookDto.BookResponse response = new BookDto.BookResponse();
         response.setId(book.getId());
@@ -83,6 +220,7 @@ public class BookService {
         response.setDescription(book.getDescription());
         response.setStockQuantity(book.getStockQuantity());
         response.setImageUrl(book.getImageUrl());
+        response.setVersion(book.getVersion());
         return response;
     }
 }
@@ -0,0 +1,60 @@
+package com.bookstore.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Version counters behind the catalog ETags. Seeded from the startup time so tags from a
+// previous process never match; per instance, so replicas may hand out different tags.
+@Component
+public class CatalogVersions {
+
+    private final AtomicLong sequence = new AtomicLong(System.currentTimeMillis());
+    private final long startVersion = sequence.get();
+    private final Map<Long, Long> bookVersions = new ConcurrentHashMap<>();
+
+    public long catalogVersion() {
+        return sequence.get();
+    }
+
+    public long bookVersion(Long bookId) {
+        return bookVersions.getOrDefault(bookId, startVersion);
+    }
+
+    public String catalogETag() {
+        return "\"catalog-" + catalogVersion() + "\"";
+    }
+
+    public String bookETag(Long bookId) {
+        return "\"book-" + bookId + "-" + bookVersion(bookId) + "\"";
+    }
+
+    // Bumped now and, inside a transaction, again after commit so a response built
+    // from pre-commit data never keeps the post-commit tag
+    public void bookChanged(Long bookId) {
+        bump(bookId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump(bookId);
+                }
+            });
+        }
+    }
+
+    public void catalogChanged() {
+        bookChanged(null);
+    }
+
+    private void bump(Long bookId) {
+        long version = sequence.incrementAndGet();
+        if (bookId != null) {
+            bookVersions.put(bookId, version);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.OrderDto;
+import com.bookstore.exception.ResourceNotFoundException;
+import com.bookstore.exception.ServiceUnavailableException;
+import com.bookstore.metrics.LatencyTimer;
+import com.bookstore.metrics.MetricsRegistry;
+import com.bookstore.model.Book;
+import com.bookstore.model.Order;
+import com.bookstore.model.User;
+import com.bookstore.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Optional group commit for checkout. Concurrent orders are collected for up to max-wait-micros
+ * or max-batch orders and placed in one transaction, so a flash sale pays one commit per batch
+ * instead of one per order. Each order reserves stock on its own and undoes its own reservation
+ * on a shortfall, so one failing order does not fail the batch. If the shared commit itself fails,
+ * every order in the batch is retried on its own transaction. A batch locks the rows of all its
+ * books up front in id order, the order single checkouts take them in, so workers cannot deadlock.
+ */
+@Service
+@Slf4j
+public class CheckoutBatcher {
+
+    private final OrderService orderService;
+    private final StockReservationService stockReservationService;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final boolean enabled;
+    private final int maxBatch;
+    private final long maxWaitNanos;
+    private final BlockingQueue<PendingOrder> queue;
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running = true;
+
+    private final LatencyTimer batchTimer;
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchedOrders = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    public CheckoutBatcher(OrderService orderService,
+                           StockReservationService stockReservationService,
+                           UserRepository userRepository,
+                           TransactionTemplate transactionTemplate,
+                           EntityManager entityManager,
+                           MetricsRegistry metricsRegistry,
+                           @Value("${bookstore.checkout.batching.enabled:false}") boolean enabled,
+                           @Value("${bookstore.checkout.batching.max-batch:64}") int maxBatch,
+                           @Value("${bookstore.checkout.batching.max-wait-micros:2000}") long maxWaitMicros,
+                           @Value("${bookstore.checkout.batching.workers:2}") int workerCount,
+                           @Value("${bookstore.checkout.batching.queue-capacity:10000}") int queueCapacity) {
+        this.orderService = orderService;
+        this.stockReservationService = stockReservationService;
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.enabled = enabled;
+        this.maxBatch = Math.max(1, maxBatch);
+        this.maxWaitNanos = TimeUnit.MICROSECONDS.toNanos(maxWaitMicros);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.batchTimer = metricsRegistry.timer("checkout_batch_seconds", "Time to place one checkout batch");
+        metricsRegistry.gauge("checkout_batches_total", "Checkout batches committed", batches::sum);
+        metricsRegistry.gauge("checkout_batched_orders_total", "Orders placed through batches", batchedOrders::sum);
+        metricsRegistry.gauge("checkout_batch_fallbacks_total", "Batches retried order by order", fallbacks::sum);
+        metricsRegistry.gauge("checkout_batch_queue", "Orders waiting for a batch", queue::size);
+        if (enabled) {
+            for (int i = 0; i < Math.max(1, workerCount); i++) {
+                Thread worker = new Thread(this::runWorker, "checkout-batcher-" + (i + 1));
+                worker.setDaemon(true);
+                worker.start();
+                workers.add(worker);
+            }
+            log.info("Checkout batching enabled: up to {} orders or {} µs per batch, {} worker(s)",
+                    this.maxBatch, maxWaitMicros, workers.size());
+        }
+    }
+
+    public CompletableFuture<Order> placeOrder(String userEmail, OrderDto.PlaceOrderRequest request) {
+        if (!enabled) {
+            return CompletableFuture.completedFuture(orderService.placeOrder(userEmail, request));
+        }
+        PendingOrder pending = new PendingOrder(userEmail, request, new CompletableFuture<>());
+        if (!queue.offer(pending)) {
+            throw new ServiceUnavailableException("Checkout is busy, please retry shortly");
+        }
+        return pending.result();
+    }
+
+    private void runWorker() {
+        List<PendingOrder> batch = new ArrayList<>(maxBatch);
+        while (running) {
+            try {
+                PendingOrder first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatch) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingOrder next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                placeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Checkout batch worker failed", e);
+                batch.forEach(pending -> pending.result().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void placeBatch(List<PendingOrder> batch) {
+        long start = System.nanoTime();
+        Map<PendingOrder, Object> outcomes;
+        try {
+            outcomes = transactionTemplate.execute(status -> placeInOneTransaction(batch));
+        } catch (RuntimeException e) {
+            log.warn("Checkout batch of {} failed to commit ({}); placing orders one by one",
+                    batch.size(), e.getMessage());
+            fallbacks.increment();
+            for (PendingOrder pending : batch) {
+                try {
+                    pending.result().complete(orderService.placeOrder(pending.userEmail(), pending.request()));
+                } catch (RuntimeException orderFailure) {
+                    pending.result().completeExceptionally(orderFailure);
+                }
+            }
+            return;
+        }
+        batchTimer.record(System.nanoTime() - start);
+        batches.increment();
+        batchedOrders.add(batch.size());
+        // Responses are released only after the shared commit
+        outcomes.forEach((pending, outcome) -> {
+            if (outcome instanceof Order order) {
+                pending.result().complete(order);
+            } else {
+                pending.result().completeExceptionally((RuntimeException) outcome);
+            }
+        });
+    }
+
+    // Business failures are returned as outcomes rather than thrown, so they never roll back the batch
+    private Map<PendingOrder, Object> placeInOneTransaction(List<PendingOrder> batch) {
+        Map<PendingOrder, Object> outcomes = new LinkedHashMap<>();
+        Map<String, Optional<User>> users = new HashMap<>();
+        Set<Long> bookIds = new HashSet<>();
+        batch.forEach(pending -> bookIds.addAll(OrderService.quantities(pending.request()).keySet()));
+        stockReservationService.lockRows(bookIds);
+        Set<Long> loaded = new HashSet<>();
+        for (PendingOrder pending : batch) {
+            Optional<User> user = users.computeIfAbsent(pending.userEmail(), userRepository::findByEmail);
+            if (user.isEmpty()) {
+                outcomes.put(pending, new ResourceNotFoundException("User not found"));
+                continue;
+            }
+            Map<Long, Integer> quantities = OrderService.quantities(pending.request());
+            StockReservationService.Reservation reservation = stockReservationService.tryReserve(quantities);
+            if (!reservation.succeeded()) {
+                loaded.addAll(quantities.keySet());
+                outcomes.put(pending, reservation.failure());
+                continue;
+            }
+            // A book an earlier order loaded is still in the persistence context with the stock and
+            // version from before this decrement; the facet index and snapshot need the new ones
+            for (Book book : reservation.books().values()) {
+                if (!loaded.add(book.getId())) {
+                    entityManager.refresh(book);
+                }
+            }
+            outcomes.put(pending, orderService.persistOrder(user.get(), pending.request(), reservation.books()));
+        }
+        return outcomes;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+        PendingOrder pending;
+        while ((pending = queue.poll()) != null) {
+            pending.result().completeExceptionally(new ServiceUnavailableException("Server is shutting down"));
+        }
+    }
+
+    private record PendingOrder(String userEmail, OrderDto.PlaceOrderRequest request,
+                                CompletableFuture<Order> result) {
+    }
+}
@@ -0,0 +1,30 @@
+package com.bookstore.service;
+
+import com.bookstore.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Opaque "after" token: the sort key it was issued for plus the last row's sort value and id
+public record KeysetCursor(String sortKey, String value, long id) {
+
+    private static final String SEPARATOR = "\u001f";
+
+    public String encode() {
+        String raw = sortKey + SEPARATOR + id + SEPARATOR + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String token, String expectedSortKey) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR, 3);
+            if (parts.length == 3 && parts[0].equals(expectedSortKey)) {
+                return new KeysetCursor(parts[0], parts[2], Long.parseLong(parts[1]));
+            }
+        } catch (IllegalArgumentException e) {
+            // falls through to the rejection below
+        }
+        throw new BadRequestException("Invalid or mismatched cursor for sort: " + expectedSortKey);
+    }
+}
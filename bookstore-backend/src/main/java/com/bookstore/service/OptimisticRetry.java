@@ -0,0 +1,87 @@
+package com.bookstore.service;
+
+import com.bookstore.exception.ConflictException;
+import jakarta.persistence.OptimisticLockException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs an idempotent read-modify-write in its own transaction and re-runs it when the commit
+ * loses an optimistic version check, sleeping a random (full-jitter) exponential backoff
+ * between attempts. Gives up with a 409 after the configured number of attempts.
+ * Inside an existing transaction the work runs once, since only the outermost transaction
+ * can be retried.
+ */
+@Component
+@Slf4j
+public class OptimisticRetry {
+
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final long baseBackoffMillis;
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+
+    public OptimisticRetry(PlatformTransactionManager transactionManager,
+                           @Value("${bookstore.concurrency.max-attempts:4}") int maxAttempts,
+                           @Value("${bookstore.concurrency.backoff-millis:5}") long baseBackoffMillis) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseBackoffMillis = baseBackoffMillis;
+    }
+
+    public <T> T execute(String description, Supplier<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return work.get();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                // The second comes untranslated from an EntityManager flush outside a repository
+                if (attempt >= maxAttempts) {
+                    conflicts.increment();
+                    log.debug("Giving up on {} after {} attempts", description, attempt);
+                    throw new ConflictException(description + " was modified concurrently, reload and retry");
+                }
+                retries.increment();
+                backoff(attempt);
+            }
+        }
+    }
+
+    // Rejects an update made against a version the client read earlier; never retried
+    public static void checkVersion(String entity, Long id, Long expected, Long actual) {
+        if (expected != null && !expected.equals(actual)) {
+            throw new ConflictException(entity + " " + id + " is at version " + actual
+                    + ", not " + expected + "; reload and retry");
+        }
+    }
+
+    private void backoff(int attempt) {
+        long cap = baseBackoffMillis << Math.min(attempt - 1, 10);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("Interrupted while retrying a concurrent update");
+        }
+    }
+
+    public long retryCount() {
+        return retries.sum();
+    }
+
+    public long conflictCount() {
+        return conflicts.sum();
+    }
+}
@@ -0,0 +1,145 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.OrderDto;
+import com.bookstore.model.Order;
+import com.bookstore.model.OrderItem;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+public class OrderExportService {
+
+    private static final String CSV_HEADER = "orderId,createdAt,status,paymentStatus,userId,userEmail," +
+            "bookId,bookTitle,isbn,quantity,unitPrice,subtotal";
+    private static final int CLEAR_INTERVAL = 1000;
+
+    public enum Format { CSV, NDJSON }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    public OrderExportService(ObjectMapper objectMapper,
+                              @Value("${bookstore.export.fetch-size:500}") int fetchSize) {
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Streams one row per order line, oldest first, straight to the output.
+     * Rows come from a forward-only cursor and the persistence context is
+     * cleared periodically, so memory stays flat regardless of export size.
+     */
+    @Transactional(readOnly = true)
+    public void exportOrders(LocalDate from, LocalDate to, Order.OrderStatus status, Format format,
+                             OutputStream output) throws IOException {
+        StringBuilder jpql = new StringBuilder(
+                "SELECT i FROM OrderItem i JOIN FETCH i.order o JOIN FETCH o.user JOIN FETCH i.book WHERE 1 = 1");
+        if (from != null) {
+            jpql.append(" AND o.createdAt >= :from");
+        }
+        if (to != null) {
+            jpql.append(" AND o.createdAt < :to");
+        }
+        if (status != null) {
+            jpql.append(" AND o.status = :status");
+        }
+        jpql.append(" ORDER BY o.createdAt, o.id, i.id");
+
+        TypedQuery<OrderItem> query = entityManager.createQuery(jpql.toString(), OrderItem.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+        if (from != null) {
+            query.setParameter("from", from.atStartOfDay());
+        }
+        if (to != null) {
+            query.setParameter("to", to.plusDays(1).atStartOfDay());
+        }
+        if (status != null) {
+            query.setParameter("status", status);
+        }
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        try (Stream<OrderItem> items = query.getResultStream()) {
+            Iterator<OrderItem> iterator = items.iterator();
+            long written = 0;
+            while (iterator.hasNext()) {
+                OrderDto.OrderExportRow row = toExportRow(iterator.next());
+                if (format == Format.CSV) {
+                    writeCsv(writer, row);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(row));
+                    writer.write('\n');
+                }
+                if (++written % CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        writer.flush();
+    }
+
+    private OrderDto.OrderExportRow toExportRow(OrderItem item) {
+        Order order = item.getOrder();
+        OrderDto.OrderExportRow row = new OrderDto.OrderExportRow();
+        row.setOrderId(order.getId());
+        row.setCreatedAt(order.getCreatedAt());
+        row.setStatus(order.getStatus());
+        row.setPaymentStatus(order.getPaymentStatus());
+        row.setUserId(order.getUser().getId());
+        row.setUserEmail(order.getUser().getEmail());
+        row.setBookId(item.getBook().getId());
+        row.setBookTitle(item.getBook().getTitle());
+        row.setIsbn(item.getBook().getIsbn());
+        row.setQuantity(item.getQuantity());
+        row.setUnitPrice(item.getUnitPrice());
+        row.setSubtotal(item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+        return row;
+    }
+
+    private void writeCsv(Writer writer, OrderDto.OrderExportRow row) throws IOException {
+        writer.write(String.join(",",
+                String.valueOf(row.getOrderId()),
+                String.valueOf(row.getCreatedAt()),
+                row.getStatus().name(),
+                row.getPaymentStatus().name(),
+                String.valueOf(row.getUserId()),
+                csvEscape(row.getUserEmail()),
+                String.valueOf(row.getBookId()),
+                csvEscape(row.getBookTitle()),
+                csvEscape(row.getIsbn()),
+                String.valueOf(row.getQuantity()),
+                row.getUnitPrice().toPlainString(),
+                row.getSubtotal().toPlainString()));
+        writer.write('\n');
+    }
+
+    private static String csvEscape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -1,34 +1,77 @@
 package com.bookstore.service;
 
+import com.bookstore.cache.BoundedTtlCache;
+import com.bookstore.catalog.CatalogSnapshotService;
+import com.bookstore.dto.BookDto;
 import com.bookstore.dto.OrderDto;
+import com.bookstore.dto.SliceResponse;
+import com.bookstore.event.OrderEventPublisher;
 import com.bookstore.exception.BadRequestException;
 import com.bookstore.exception.ResourceNotFoundException;
+import com.bookstore.facet.GenreFacetIndex;
 import com.bookstore.model.*;
-import com.bookstore.repository.BookRepository;
 import com.bookstore.repository.OrderRepository;
 import com.bookstore.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 public class OrderService {
 
+    private static final String ORDER_CURSOR_SORT = "createdAt:desc";
+
     private final OrderRepository orderRepository;
     private final UserRepository userRepository;
-    private final BookRepository bookRepository;
+    private final StockReservationService stockReservationService;
+    private final BoundedTtlCache<Long, BookDto.BookResponse> bookResponseCache;
+    private final CatalogVersions catalogVersions;
+    private final OptimisticRetry optimisticRetry;
+    private final OrderEventPublisher orderEventPublisher;
+    private final GenreFacetIndex genreFacetIndex;
+    private final CatalogSnapshotService catalogSnapshotService;
 
     @Transactional
     public Order placeOrder(String userEmail, OrderDto.PlaceOrderRequest request) {
-        User user = userRepository.findByEmail(userEmail)
+        User user = findUser(userEmail);
+        Map<Long, Book> books = stockReservationService.reserve(quantities(request));
+        return persistOrder(user, request, books);
+    }
+
+    public User findUser(String userEmail) {
+        return userRepository.findByEmail(userEmail)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    }
+
+    // Requested quantity per book, merging repeated lines for the same book
+    public static Map<Long, Integer> quantities(OrderDto.PlaceOrderRequest request) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (OrderDto.OrderItemRequest itemReq : request.getItems()) {
+            quantities.merge(itemReq.getBookId(), itemReq.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    // Builds and saves the order for stock already reserved in the caller's transaction
+    public Order persistOrder(User user, OrderDto.PlaceOrderRequest request, Map<Long, Book> books) {
+        books.keySet().forEach(bookResponseCache::invalidate);
+        books.keySet().forEach(catalogVersions::bookChanged);
+        books.values().forEach(book ->
+                genreFacetIndex.stockChanged(book.getId(), book.getStockQuantity(), book.getVersion()));
+        books.values().forEach(book ->
+                catalogSnapshotService.stockChanged(book.getId(), book.getStockQuantity(), book.getVersion()));
 
         Order order = Order.builder()
                 .user(user)
@@ -37,17 +80,12 @@ public class OrderService {
                 .build();
 
         List<OrderItem> items = new ArrayList<>();
+        BigDecimal total = BigDecimal.ZERO;
+        int itemCount = 0;
         for (OrderDto.OrderItemRequest itemReq : request.getItems()) {
-            Book book = bookRepository.findById(itemReq.getBookId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Book not found: " + itemReq.getBookId()));
-
-            if (book.getStockQuantity() < itemReq.getQuantity()) {
-                throw new BadRequestException("Insufficient stock for book: " + book.getTitle());
-            }
-
-            book.setStockQuantity(book.getStockQuantity() - itemReq.getQuantity());
-            bookRepository.save(book);
-
+            Book book = books.get(itemReq.getBookId());
+            total = total.add(book.getPrice().multiply(BigDecimal.valueOf(itemReq.getQuantity())));
+            itemCount += itemReq.getQuantity();
             OrderItem item = OrderItem.builder()
                     .order(order)
                     .book(book)
@@ -58,32 +96,120 @@ public class OrderService {
         }
 
         order.setOrderItems(items);
-        return orderRepository.save(order);
+        order.setTotalAmount(total);
+        order.setItemCount(itemCount);
+        Order saved = orderRepository.save(order);
+        orderEventPublisher.orderPlaced(saved);
+        return saved;
+    }
+
+    @Transactional(readOnly = true)
+    public Page<OrderDto.OrderResponse> getAllOrders(Pageable pageable) {
+        return toResponsePage(orderRepository.findAll(pageable));
+    }
+
+    @Transactional(readOnly = true)
+    public Page<OrderDto.OrderResponse> getAllOrders(BigDecimal minTotal, BigDecimal maxTotal, Pageable pageable) {
+        if (minTotal == null && maxTotal == null) {
+            return getAllOrders(pageable);
+        }
+        return toResponsePage(orderRepository.findByTotalAmountRange(minTotal, maxTotal, pageable));
+    }
+
+    @Transactional(readOnly = true)
+    public Page<OrderDto.OrderResponse> getOrdersByUser(String userEmail, Pageable pageable) {
+        User user = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        return toResponsePage(orderRepository.findByUser(user, pageable));
     }
 
-    public Page<Order> getAllOrders(Pageable pageable) {
-        return orderRepository.findAll(pageable);
+    @Transactional(readOnly = true)
+    public SliceResponse<OrderDto.OrderResponse> getAllOrdersAfter(String after, int size) {
+        KeysetCursor cursor = decodeOrderCursor(after);
+        Pageable limit = orderSliceLimit(size);
+        List<Order> orders = cursor == null
+                ? orderRepository.findLatest(limit)
+                : orderRepository.findLatestBefore(LocalDateTime.parse(cursor.value()), cursor.id(), limit);
+        return toResponseSlice(orders, size);
     }
 
-    public Page<Order> getOrdersByUser(String userEmail, Pageable pageable) {
+    @Transactional(readOnly = true)
+    public SliceResponse<OrderDto.OrderResponse> getOrdersByUserAfter(String userEmail, String after, int size) {
         User user = userRepository.findByEmail(userEmail)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-        return orderRepository.findByUser(user, pageable);
+        KeysetCursor cursor = decodeOrderCursor(after);
+        Pageable limit = orderSliceLimit(size);
+        List<Order> orders = cursor == null
+                ? orderRepository.findLatestByUser(user, limit)
+                : orderRepository.findLatestByUserBefore(user, LocalDateTime.parse(cursor.value()), cursor.id(), limit);
+        return toResponseSlice(orders, size);
+    }
+
+    private KeysetCursor decodeOrderCursor(String after) {
+        if (after == null || after.isBlank()) {
+            return null;
+        }
+        KeysetCursor cursor = KeysetCursor.decode(after, ORDER_CURSOR_SORT);
+        try {
+            LocalDateTime.parse(cursor.value());
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Invalid cursor value for sort: " + ORDER_CURSOR_SORT);
+        }
+        return cursor;
+    }
+
+    // One extra row tells whether another slice follows without a count query
+    private Pageable orderSliceLimit(int size) {
+        PageLimits.checkSize(size);
+        return PageRequest.of(0, size + 1);
+    }
+
+    private SliceResponse<OrderDto.OrderResponse> toResponseSlice(List<Order> orders, int size) {
+        boolean hasNext = orders.size() > size;
+        List<Order> content = hasNext ? orders.subList(0, size) : orders;
+        if (!content.isEmpty()) {
+            orderRepository.fetchItemsByIdIn(content.stream().map(Order::getId).toList());
+        }
+        String nextCursor = null;
+        if (hasNext) {
+            Order last = content.get(content.size() - 1);
+            nextCursor = new KeysetCursor(ORDER_CURSOR_SORT, last.getCreatedAt().toString(), last.getId()).encode();
+        }
+        return new SliceResponse<>(content.stream().map(this::toResponse).toList(), content.size(), hasNext,
+                nextCursor);
+    }
+
+    // Users come with the page query; items and books for the whole page are
+    // loaded by one extra fetch-join query instead of one query per order
+    private Page<OrderDto.OrderResponse> toResponsePage(Page<Order> orders) {
+        if (orders.hasContent()) {
+            orderRepository.fetchItemsByIdIn(orders.map(Order::getId).getContent());
+        }
+        return orders.map(this::toResponse);
     }
 
     public Order getOrderById(Long id) {
-        return orderRepository.findById(id)
+        return orderRepository.findWithItemsById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + id));
     }
 
-    @Transactional
+    // Setting a status is idempotent, so a lost version check is retried unless the client pinned a version
     public Order updateOrderStatus(Long id, OrderDto.UpdateStatusRequest request) {
-        Order order = getOrderById(id);
-        order.setStatus(request.getStatus());
-        if (request.getPaymentStatus() != null) {
-            order.setPaymentStatus(request.getPaymentStatus());
-        }
-        return orderRepository.save(order);
+        return optimisticRetry.execute("Order " + id, () -> {
+            Order order = getOrderById(id);
+            OptimisticRetry.checkVersion("Order", id, request.getVersion(), order.getVersion());
+            Order.OrderStatus previousStatus = order.getStatus();
+            Order.PaymentStatus previousPayment = order.getPaymentStatus();
+            order.setStatus(request.getStatus());
+            if (request.getPaymentStatus() != null) {
+                order.setPaymentStatus(request.getPaymentStatus());
+            }
+            Order saved = orderRepository.saveAndFlush(order);
+            if (saved.getStatus() != previousStatus || saved.getPaymentStatus() != previousPayment) {
+                orderEventPublisher.statusChanged(saved);
+            }
+            return saved;
+        });
     }
 
     public OrderDto.OrderResponse toResponse(Order order) {
@@ -95,9 +221,12 @@ public class OrderService {
         response.setStatus(order.getStatus());
         response.setPaymentStatus(order.getPaymentStatus());
         response.setCreatedAt(order.getCreatedAt());
+        response.setVersion(order.getVersion());
 
         List<OrderDto.OrderItemResponse> itemResponses = new ArrayList<>();
         BigDecimal total = BigDecimal.ZERO;
+        int itemCount = 0;
+        boolean stored = order.getTotalAmount() != null && order.getItemCount() != null;
 
         for (OrderItem item : order.getOrderItems()) {
             OrderDto.OrderItemResponse itemResp = new OrderDto.OrderItemResponse();
@@ -110,12 +239,16 @@ public class OrderService {
             itemResp.setUnitPrice(item.getUnitPrice());
             BigDecimal subtotal = item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
             itemResp.setSubtotal(subtotal);
-            total = total.add(subtotal);
+            if (!stored) {
+                total = total.add(subtotal);
+                itemCount += item.getQuantity();
+            }
             itemResponses.add(itemResp);
         }
 
         response.setItems(itemResponses);
-        response.setTotalAmount(total);
+        response.setTotalAmount(stored ? order.getTotalAmount() : total);
+        response.setItemCount(stored ? order.getItemCount() : itemCount);
         return response;
     }
 }
@@ -0,0 +1,28 @@
+package com.bookstore.service;
+
+import com.bookstore.exception.BadRequestException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+// Page sizes the listing endpoints accept; a page is one query, so its size bounds what one request costs
+public final class PageLimits {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private PageLimits() {
+    }
+
+    public static void checkSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    public static PageRequest pageRequest(int page, int size, Sort sort) {
+        if (page < 0) {
+            throw new BadRequestException("Page index must not be negative");
+        }
+        checkSize(size);
+        return PageRequest.of(page, size, sort);
+    }
+}
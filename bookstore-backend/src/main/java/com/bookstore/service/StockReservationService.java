@@ -0,0 +1,149 @@
+package com.bookstore.service;
+
+import com.bookstore.exception.BadRequestException;
+import com.bookstore.exception.ResourceNotFoundException;
+import com.bookstore.inventory.HotStockLedger;
+import com.bookstore.model.Book;
+import com.bookstore.repository.BookRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class StockReservationService {
+
+    private static final String DECREMENT_STOCK_SQL =
+            "UPDATE books SET stock_quantity = stock_quantity - ?, version = version + 1 " +
+            "WHERE id = ? AND stock_quantity >= ?";
+
+    private static final String RESTORE_STOCK_SQL =
+            "UPDATE books SET stock_quantity = stock_quantity + ?, version = version + 1 WHERE id = ?";
+
+    private static final String LOCK_ROWS_SQL = "SELECT id FROM books WHERE id IN (%s) ORDER BY id FOR UPDATE";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BookRepository bookRepository;
+    private final HotStockLedger hotStockLedger;
+
+    // Outcome of tryReserve: either the reserved books or the reason nothing was reserved
+    public record Reservation(Map<Long, Book> books, RuntimeException failure) {
+        public boolean succeeded() {
+            return failure == null;
+        }
+    }
+
+    /**
+     * Atomically takes the requested quantity of every book, keyed by book id.
+     * Rows are updated in ascending id order so concurrent carts never lock the
+     * same books in opposite orders. Any shortfall throws, rolling back the
+     * caller's transaction and with it every decrement already applied.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<Long, Book> reserve(Map<Long, Integer> quantities) {
+        Reservation reservation = reserve(quantities, false);
+        if (!reservation.succeeded()) {
+            throw reservation.failure();
+        }
+        return reservation.books();
+    }
+
+    /**
+     * Like {@link #reserve} but never throws: on a shortfall the decrements it already applied are
+     * put back and the failure is returned, so the caller's transaction stays usable for other
+     * orders (an exception crossing this proxy would mark it rollback-only).
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Reservation tryReserve(Map<Long, Integer> quantities) {
+        return reserve(quantities, true);
+    }
+
+    /**
+     * Locks the rows of every book a group of orders is about to reserve, in ascending id order.
+     * A checkout batch calls this first, so its orders' decrements never wait on another batch
+     * that locked an overlapping set of books in a different order. Hot books have no row to lock.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lockRows(Collection<Long> bookIds) {
+        List<Long> ids = bookIds.stream().filter(id -> !hotStockLedger.isHot(id)).distinct().sorted().toList();
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.queryForList(LOCK_ROWS_SQL.formatted(String.join(", ", Collections.nCopies(ids.size(), "?"))),
+                Long.class, ids.toArray());
+    }
+
+    private Reservation reserve(Map<Long, Integer> quantities, boolean compensate) {
+        if (quantities.isEmpty()) {
+            return new Reservation(Map.of(), null);
+        }
+        // Hot books are taken from the in-memory ledger; the rest from their rows
+        Map<Long, Integer> hot = new TreeMap<>();
+        List<Map.Entry<Long, Integer>> ordered = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entry : new TreeMap<>(quantities).entrySet()) {
+            if (hotStockLedger.isHot(entry.getKey())) {
+                hot.put(entry.getKey(), entry.getValue());
+            } else {
+                ordered.add(entry);
+            }
+        }
+        HotStockLedger.Claim claim = hotStockLedger.reserve(hot);
+        int[][] updateCounts = new int[0][];
+        if (claim.succeeded() && !ordered.isEmpty()) {
+            updateCounts = jdbcTemplate.batchUpdate(DECREMENT_STOCK_SQL, ordered, ordered.size(),
+                    (ps, entry) -> {
+                        ps.setInt(1, entry.getValue());
+                        ps.setLong(2, entry.getKey());
+                        ps.setInt(3, entry.getValue());
+                    });
+        }
+
+        // Loaded after the updates so the returned books carry the new stock levels
+        Map<Long, Book> books = bookRepository.findAllById(quantities.keySet()).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+
+        RuntimeException failure = null;
+        if (!claim.succeeded()) {
+            Book book = books.get(claim.shortfall());
+            failure = book == null
+                    ? new ResourceNotFoundException("Book not found: " + claim.shortfall())
+                    : new BadRequestException("Insufficient stock for book: " + book.getTitle());
+        }
+        List<Map.Entry<Long, Integer>> applied = new ArrayList<>();
+        int index = 0;
+        for (int[] batch : updateCounts) {
+            for (int count : batch) {
+                Map.Entry<Long, Integer> entry = ordered.get(index++);
+                Book book = books.get(entry.getKey());
+                if (count > 0) {
+                    applied.add(entry);
+                }
+                if (failure != null) {
+                    continue;
+                }
+                if (book == null) {
+                    failure = new ResourceNotFoundException("Book not found: " + entry.getKey());
+                } else if (count == 0) {
+                    failure = new BadRequestException("Insufficient stock for book: " + book.getTitle());
+                }
+            }
+        }
+        if (failure == null) {
+            return new Reservation(books, null);
+        }
+        claim.release();
+        if (compensate && !applied.isEmpty()) {
+            jdbcTemplate.batchUpdate(RESTORE_STOCK_SQL, applied, applied.size(), (ps, entry) -> {
+                ps.setInt(1, entry.getValue());
+                ps.setLong(2, entry.getKey());
+            });
+        }
+        return new Reservation(Map.of(), failure);
+    }
+}
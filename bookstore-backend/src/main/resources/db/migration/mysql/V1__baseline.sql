@@ -0,0 +1,50 @@
+-- The schema ddl-auto=update created before migrations existed. IF NOT EXISTS lets databases that
+-- Hibernate already built take this as their baseline unchanged.
+
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    role ENUM('CUSTOMER', 'ADMIN') NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS books (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    title VARCHAR(255) NOT NULL,
+    author VARCHAR(255) NOT NULL,
+    genre VARCHAR(255),
+    isbn VARCHAR(255),
+    price DECIMAL(10, 2) NOT NULL,
+    description TEXT,
+    stock_quantity INT NOT NULL,
+    image_url VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_books_isbn UNIQUE (isbn)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS orders (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    status ENUM('PENDING', 'PROCESSING', 'SHIPPED', 'DELIVERED', 'CANCELLED') NOT NULL,
+    payment_status ENUM('PENDING', 'PAID', 'FAILED', 'REFUNDED') NOT NULL,
+    created_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_orders_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+-- InnoDB indexes foreign key columns itself; naming the indexes keeps them the same everywhere
+CREATE TABLE IF NOT EXISTS order_items (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    order_id BIGINT NOT NULL,
+    book_id BIGINT NOT NULL,
+    quantity INT NOT NULL,
+    unit_price DECIMAL(10, 2) NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_order_items_order (order_id),
+    INDEX idx_order_items_book (book_id),
+    CONSTRAINT fk_order_items_order FOREIGN KEY (order_id) REFERENCES orders (id),
+    CONSTRAINT fk_order_items_book FOREIGN KEY (book_id) REFERENCES books (id)
+) ENGINE = InnoDB;
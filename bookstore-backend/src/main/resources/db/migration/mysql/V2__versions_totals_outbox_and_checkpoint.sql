@@ -0,0 +1,32 @@
+-- Columns and tables added while ddl-auto=update was still in charge. On databases that already
+-- have them, MySQL reports a duplicate column or key (1060, 1061) and SchemaMigrator moves on.
+
+ALTER TABLE books ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE books ADD COLUMN genre_key VARCHAR(255);
+ALTER TABLE orders ADD COLUMN total_amount DECIMAL(12, 2);
+ALTER TABLE orders ADD COLUMN item_count INT;
+ALTER TABLE orders ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+
+CREATE INDEX idx_books_genre_key ON books (genre_key);
+
+CREATE TABLE IF NOT EXISTS order_outbox (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    order_id BIGINT NOT NULL,
+    event_type VARCHAR(64) NOT NULL,
+    payload TEXT NOT NULL,
+    status ENUM('PENDING', 'DONE', 'FAILED') NOT NULL,
+    attempts INT NOT NULL,
+    available_at DATETIME(6) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    processed_at DATETIME(6),
+    last_error VARCHAR(1000),
+    PRIMARY KEY (id),
+    INDEX idx_order_outbox_pending (status, available_at)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS inventory_checkpoint (
+    name VARCHAR(64) NOT NULL,
+    last_seq BIGINT NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (name)
+) ENGINE = InnoDB;
@@ -0,0 +1,11 @@
+-- Listing sorts (BookSort); each index ends in id, the tiebreaker every sort appends
+CREATE INDEX idx_books_title_id ON books (title, id);
+CREATE INDEX idx_books_author_id ON books (author, id);
+CREATE INDEX idx_books_price_id ON books (price, id);
+CREATE INDEX idx_books_author_title_id ON books (author, title, id);
+
+-- A customer's orders newest first (findByUser, findLatestByUser*), the admin order listing by
+-- createdAt or totalAmount, and the (createdAt, id) keyset
+CREATE INDEX idx_orders_user_created ON orders (user_id, created_at, id);
+CREATE INDEX idx_orders_created ON orders (created_at, id);
+CREATE INDEX idx_orders_total ON orders (total_amount, id);
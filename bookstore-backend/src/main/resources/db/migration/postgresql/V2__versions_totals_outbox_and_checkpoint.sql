@@ -0,0 +1,33 @@
+-- Columns and tables added while ddl-auto=update was still in charge; IF NOT EXISTS skips what
+-- Hibernate already added
+
+ALTER TABLE books ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE books ADD COLUMN IF NOT EXISTS genre_key VARCHAR(255);
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS total_amount NUMERIC(12, 2);
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS item_count INTEGER;
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_books_genre_key ON books (genre_key);
+
+CREATE TABLE IF NOT EXISTS order_outbox (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    order_id BIGINT NOT NULL,
+    event_type VARCHAR(64) NOT NULL,
+    payload TEXT NOT NULL,
+    status VARCHAR(16) NOT NULL CHECK (status IN ('PENDING', 'DONE', 'FAILED')),
+    attempts INTEGER NOT NULL,
+    available_at TIMESTAMP(6) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    processed_at TIMESTAMP(6),
+    last_error VARCHAR(1000),
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_order_outbox_pending ON order_outbox (status, available_at);
+
+CREATE TABLE IF NOT EXISTS inventory_checkpoint (
+    name VARCHAR(64) NOT NULL,
+    last_seq BIGINT NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (name)
+);
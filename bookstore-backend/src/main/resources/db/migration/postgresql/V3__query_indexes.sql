@@ -0,0 +1,16 @@
+-- Listing sorts (BookSort); each index ends in id, the tiebreaker every sort appends
+CREATE INDEX IF NOT EXISTS idx_books_title_id ON books (title, id);
+CREATE INDEX IF NOT EXISTS idx_books_author_id ON books (author, id);
+CREATE INDEX IF NOT EXISTS idx_books_price_id ON books (price, id);
+CREATE INDEX IF NOT EXISTS idx_books_author_title_id ON books (author, title, id);
+
+-- A customer's orders newest first (findByUser, findLatestByUser*), the admin order listing by
+-- createdAt or totalAmount, and the (createdAt, id) keyset
+CREATE INDEX IF NOT EXISTS idx_orders_user_created ON orders (user_id, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_orders_created ON orders (created_at, id);
+CREATE INDEX IF NOT EXISTS idx_orders_total ON orders (total_amount, id);
+
+-- PostgreSQL does not index foreign key columns on its own. Without these, loading an order's items
+-- and every delete of a book or order scans order_items
+CREATE INDEX IF NOT EXISTS idx_order_items_order ON order_items (order_id);
+CREATE INDEX IF NOT EXISTS idx_order_items_book ON order_items (book_id);
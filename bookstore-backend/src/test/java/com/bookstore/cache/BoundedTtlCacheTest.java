@@ -0,0 +1,53 @@
+package com.bookstore.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedTtlCacheTest {
+
+    private final BoundedTtlCache<Long, String> cache = new BoundedTtlCache<>("test", 10, 60_000);
+
+    @Test
+    void loadedValueIsCached() {
+        assertThat(cache.getOrLoad(1L, id -> "v1")).isEqualTo("v1");
+        assertThat(cache.get(1L)).isEqualTo("v1");
+    }
+
+    @Test
+    void loadThatRacedAnInvalidationIsReturnedButNotCached() {
+        // The order commits and invalidates while the reader is still holding the pre-commit row
+        String loaded = cache.getOrLoad(1L, id -> {
+            cache.invalidate(1L);
+            return "stale";
+        });
+
+        assertThat(loaded).isEqualTo("stale");
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.getOrLoad(1L, id -> "fresh")).isEqualTo("fresh");
+        assertThat(cache.get(1L)).isEqualTo("fresh");
+    }
+
+    @Test
+    void invalidateAllAlsoDropsRacingLoads() {
+        cache.getOrLoad(1L, id -> {
+            cache.invalidateAll();
+            return "stale";
+        });
+
+        assertThat(cache.get(1L)).isNull();
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedBeyondMaxSize() {
+        BoundedTtlCache<Long, String> small = new BoundedTtlCache<>("small", 2, 60_000);
+        small.put(1L, "a");
+        small.put(2L, "b");
+        small.get(1L);
+        small.put(3L, "c");
+
+        assertThat(small.get(2L)).isNull();
+        assertThat(small.get(1L)).isEqualTo("a");
+        assertThat(small.stats().evictions()).isEqualTo(1);
+    }
+}
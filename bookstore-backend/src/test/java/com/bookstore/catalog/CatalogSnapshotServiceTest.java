@@ -0,0 +1,66 @@
+package com.bookstore.catalog;
+
+import com.bookstore.dto.BookDto;
+import com.bookstore.model.Book;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.BookSort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Mixed-case titles and authors, where a case-folded order and the database's collation disagree
+@SpringBootTest(properties = "bookstore.catalog.snapshot.enabled=true")
+@ActiveProfiles("test")
+class CatalogSnapshotServiceTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @BeforeEach
+    void seed() {
+        for (String name : List.of("apple", "Banana", "cherry", "Date", "apple", "banana")) {
+            bookRepository.save(Book.builder().title(name).author(name + " Writer")
+                    .price(BigDecimal.TEN).stockQuantity(1).build());
+        }
+        catalogSnapshotService.catalogChanged();
+    }
+
+    @Test
+    void titleAndAuthorPagesMatchTheDatabase() throws InterruptedException {
+        for (BookSort sort : List.of(BookSort.TITLE, BookSort.AUTHOR)) {
+            for (Sort.Direction direction : Sort.Direction.values()) {
+                Pageable pageable = PageRequest.of(0, (int) bookRepository.count(), sort.toSort(direction));
+
+                Page<BookDto.BookResponse> fromSnapshot = awaitSnapshot(pageable);
+
+                assertThat(fromSnapshot.map(BookDto.BookResponse::getId).getContent())
+                        .as("%s %s", sort, direction)
+                        .containsExactlyElementsOf(bookRepository.findAll(pageable).map(Book::getId).getContent());
+            }
+        }
+    }
+
+    private Page<BookDto.BookResponse> awaitSnapshot(Pageable pageable) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        Optional<Page<BookDto.BookResponse>> page = catalogSnapshotService.page(pageable);
+        while (page.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            page = catalogSnapshotService.page(pageable);
+        }
+        return page.orElseThrow(() -> new AssertionError("snapshot never served " + pageable));
+    }
+}
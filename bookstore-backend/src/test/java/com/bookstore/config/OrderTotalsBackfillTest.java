@@ -0,0 +1,79 @@
+package com.bookstore.config;
+
+import com.bookstore.model.Book;
+import com.bookstore.model.Order;
+import com.bookstore.model.OrderItem;
+import com.bookstore.model.User;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.OrderRepository;
+import com.bookstore.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderTotalsBackfillTest {
+
+    @Autowired
+    private OrderTotalsBackfill backfill;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void fillsMissingTotalsThenCostsOneQueryPerStartup() {
+        List<Long> ids = transactionTemplate.execute(status -> {
+            User user = userRepository.save(User.builder()
+                    .name("Backfill").email("backfill@bookstore.com").password("x").role(User.Role.CUSTOMER).build());
+            Book book = bookRepository.save(Book.builder().title("Backfill Book").author("Author")
+                    .isbn("BACKFILL-1").price(BigDecimal.TEN).stockQuantity(100).build());
+            List<Long> saved = new ArrayList<>();
+            for (int o = 1; o <= 3; o++) {
+                Order order = Order.builder().user(user).totalAmount(BigDecimal.ZERO).itemCount(0).build();
+                order.getOrderItems().add(OrderItem.builder().order(order).book(book)
+                        .quantity(o).unitPrice(BigDecimal.TEN).build());
+                saved.add(orderRepository.save(order).getId());
+            }
+            return saved;
+        });
+        // Placed before totals were stored
+        jdbcTemplate.update("UPDATE orders SET total_amount = NULL, item_count = NULL WHERE id IN (?, ?)",
+                ids.get(1), ids.get(2));
+
+        backfill.run();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders WHERE total_amount IS NULL", Long.class))
+                .isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT total_amount FROM orders WHERE id = ?", BigDecimal.class,
+                ids.get(2))).isEqualByComparingTo("30");
+        assertThat(jdbcTemplate.queryForObject("SELECT item_count FROM orders WHERE id = ?", Integer.class,
+                ids.get(1))).isEqualTo(2);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        backfill.run();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,115 @@
+package com.bookstore.datasource;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the lag check against a real primary and its streaming replica, then breaks replication on the
+ * replica and expects it out of rotation. Runs only when both servers are given, e.g.
+ * BOOKSTORE_IT_POSTGRES_URL=jdbc:postgresql://localhost:5432/ with
+ * BOOKSTORE_IT_POSTGRES_REPLICA_URL=jdbc:postgresql://localhost:5433/, or the same pair of
+ * BOOKSTORE_IT_MYSQL_ variables for MySQL or MariaDB. _USER and _PASSWORD apply to both servers, and
+ * the user must be allowed to stop replication; on PostgreSQL that means ALTER SYSTEM on the replica.
+ */
+class ReplicaLagMonitorTest {
+
+    private static final long MAX_LAG_MILLIS = 2_000;
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "BOOKSTORE_IT_POSTGRES_REPLICA_URL", matches = ".+")
+    void postgresReplicaWithoutAWalReceiverIsUnusable() throws InterruptedException {
+        Pair pair = pair("POSTGRES");
+        awaitUsable(pair);
+
+        // Ending the receiver or its walsender only makes it reconnect; without a conninfo it stays down
+        JdbcTemplate replica = pair.replicaJdbc();
+        String conninfo = replica.queryForObject("SHOW primary_conninfo", String.class);
+        boolean inAutoConf = Boolean.TRUE.equals(replica.queryForObject("SELECT sourcefile LIKE " +
+                "'%postgresql.auto.conf' FROM pg_settings WHERE name = 'primary_conninfo'", Boolean.class));
+        replica.execute("ALTER SYSTEM SET primary_conninfo = ''");
+        try {
+            replica.execute("SELECT pg_reload_conf()");
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (replica.queryForObject("SELECT COUNT(*) FROM pg_stat_wal_receiver", Integer.class) > 0) {
+                assertThat(System.currentTimeMillis()).as("WAL receiver still running").isLessThan(deadline);
+                Thread.sleep(50);
+            }
+            pair.monitor().check();
+
+            assertThat(pair.routing().replicaUsable()).isFalse();
+            assertThat(pair.monitor().lagMillis()).isEqualTo(-1);
+        } finally {
+            replica.execute(inAutoConf
+                    ? "ALTER SYSTEM SET primary_conninfo = '" + conninfo.replace("'", "''") + "'"
+                    : "ALTER SYSTEM RESET primary_conninfo");
+            replica.execute("SELECT pg_reload_conf()");
+        }
+        awaitUsable(pair);
+    }
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "BOOKSTORE_IT_MYSQL_REPLICA_URL", matches = ".+")
+    void mysqlReplicaWithAStoppedThreadIsUnusable() throws InterruptedException {
+        Pair pair = pair("MYSQL");
+        for (String thread : new String[]{"IO_THREAD", "SQL_THREAD"}) {
+            awaitUsable(pair);
+            pair.replicaJdbc().execute("STOP REPLICA " + thread);
+            try {
+                pair.monitor().check();
+
+                assertThat(pair.routing().replicaUsable()).as(thread).isFalse();
+                assertThat(pair.monitor().lagMillis()).as(thread).isEqualTo(-1);
+            } finally {
+                pair.replicaJdbc().execute("START REPLICA " + thread);
+            }
+        }
+        awaitUsable(pair);
+    }
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "BOOKSTORE_IT_MYSQL_URL", matches = ".+")
+    void mysqlServerThatReplicatesNothingIsUnusable() {
+        // The primary has no replication status rows at all
+        DataSource primary = dataSource("MYSQL", System.getenv("BOOKSTORE_IT_MYSQL_URL"));
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, primary);
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(primary, routing, MAX_LAG_MILLIS);
+
+        monitor.check();
+
+        assertThat(routing.replicaUsable()).isFalse();
+        assertThat(monitor.lagMillis()).isEqualTo(-1);
+    }
+
+    private static void awaitUsable(Pair pair) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        pair.monitor().check();
+        while (!pair.routing().replicaUsable()) {
+            assertThat(System.currentTimeMillis()).as("replica never caught up").isLessThan(deadline);
+            Thread.sleep(100);
+            pair.monitor().check();
+        }
+        assertThat(pair.monitor().lagMillis()).isBetween(0L, MAX_LAG_MILLIS);
+    }
+
+    private static Pair pair(String server) {
+        DataSource primary = dataSource(server, System.getenv("BOOKSTORE_IT_" + server + "_URL"));
+        DataSource replica = dataSource(server, System.getenv("BOOKSTORE_IT_" + server + "_REPLICA_URL"));
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replica);
+        return new Pair(routing, new ReplicaLagMonitor(replica, routing, MAX_LAG_MILLIS), new JdbcTemplate(replica));
+    }
+
+    private static DataSource dataSource(String server, String url) {
+        return new DriverManagerDataSource(url,
+                System.getenv().getOrDefault("BOOKSTORE_IT_" + server + "_USER", "root"),
+                System.getenv().getOrDefault("BOOKSTORE_IT_" + server + "_PASSWORD", ""));
+    }
+
+    private record Pair(ReplicaRoutingDataSource routing, ReplicaLagMonitor monitor, JdbcTemplate replicaJdbc) {
+    }
+}
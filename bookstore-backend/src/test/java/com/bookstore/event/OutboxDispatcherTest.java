@@ -0,0 +1,142 @@
+package com.bookstore.event;
+
+import com.bookstore.metrics.MetricsRegistry;
+import com.bookstore.model.OrderOutboxEvent;
+import com.bookstore.repository.OrderOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// The test profile has no scheduled dispatcher; each test drains with its own handlers
+@SpringBootTest
+@ActiveProfiles("test")
+class OutboxDispatcherTest {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Autowired
+    private OrderOutboxRepository outboxRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void clearOutbox() {
+        outboxRepository.deleteAll();
+    }
+
+    @Test
+    void deliversOutsideATransactionAndMarksDone() {
+        Long id = append(1L);
+        List<Boolean> inTransaction = new ArrayList<>();
+
+        dispatcher(60, event -> inTransaction.add(TransactionSynchronizationManager.isActualTransactionActive()))
+                .drain();
+
+        assertThat(inTransaction).containsExactly(false);
+        OrderOutboxEvent row = outboxRepository.findById(id).orElseThrow();
+        assertThat(row.getStatus()).isEqualTo(OrderOutboxEvent.Status.DONE);
+        assertThat(row.getAttempts()).isEqualTo(1);
+        assertThat(row.getProcessedAt()).isNotNull();
+    }
+
+    @Test
+    void failingEventIsRetriedLaterWithoutHoldingBackTheBatch() {
+        Long failing = append(1L);
+        Long healthy = append(2L);
+
+        dispatcher(60, event -> {
+            if (event.orderId() == 1L) {
+                throw new IllegalStateException("handler down");
+            }
+        }).drain();
+
+        OrderOutboxEvent row = outboxRepository.findById(failing).orElseThrow();
+        assertThat(row.getStatus()).isEqualTo(OrderOutboxEvent.Status.PENDING);
+        assertThat(row.getAttempts()).isEqualTo(1);
+        assertThat(row.getAvailableAt()).isAfter(LocalDateTime.now());
+        assertThat(row.getLastError()).contains("handler down");
+        assertThat(outboxRepository.findById(healthy).orElseThrow().getStatus())
+                .isEqualTo(OrderOutboxEvent.Status.DONE);
+    }
+
+    @Test
+    void claimedEventIsNotHandedToAnotherDispatcherDuringItsLease() {
+        append(1L);
+        OutboxDispatcher other = dispatcher(60, event -> {
+            throw new AssertionError("delivered twice: " + event);
+        });
+        List<Long> delivered = new ArrayList<>();
+
+        dispatcher(60, event -> {
+            other.drain();
+            delivered.add(event.orderId());
+        }).drain();
+
+        assertThat(delivered).containsExactly(1L);
+    }
+
+    @Test
+    void eventThatKeepsKillingTheDispatcherIsParked() {
+        Long poison = append(1L);
+        // An Error escapes the dispatcher before any outcome is recorded; a zero lease makes it due again
+        OutboxDispatcher dispatcher = dispatcher(0, event -> {
+            throw new OutOfMemoryError("simulated crash");
+        });
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            assertThatThrownBy(dispatcher::drain).isInstanceOf(OutOfMemoryError.class);
+        }
+
+        dispatcher.drain();
+
+        OrderOutboxEvent row = outboxRepository.findById(poison).orElseThrow();
+        assertThat(row.getStatus()).isEqualTo(OrderOutboxEvent.Status.FAILED);
+        assertThat(row.getAttempts()).isEqualTo(MAX_ATTEMPTS);
+        assertThat(row.getLastError()).contains("No outcome recorded");
+    }
+
+    @Test
+    void eventIsParkedAfterTheLastFailedAttempt() {
+        Long failing = append(1L);
+        OutboxDispatcher dispatcher = dispatcher(60, event -> {
+            throw new IllegalStateException("always fails");
+        });
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            dispatcher.drain();
+            // Skip the backoff
+            transactionTemplate.executeWithoutResult(status -> outboxRepository.findById(failing).orElseThrow()
+                    .setAvailableAt(LocalDateTime.now().minusSeconds(1)));
+        }
+
+        OrderOutboxEvent row = outboxRepository.findById(failing).orElseThrow();
+        assertThat(row.getStatus()).isEqualTo(OrderOutboxEvent.Status.FAILED);
+        assertThat(row.getAttempts()).isEqualTo(MAX_ATTEMPTS);
+        assertThat(row.getLastError()).contains("always fails");
+    }
+
+    private OutboxDispatcher dispatcher(long leaseSeconds, OrderEventHandler handler) {
+        return new OutboxDispatcher(outboxRepository, List.of(handler), transactionTemplate, new MetricsRegistry(),
+                10, MAX_ATTEMPTS, leaseSeconds, 24);
+    }
+
+    private Long append(Long orderId) {
+        LocalDateTime now = LocalDateTime.now().minusSeconds(1);
+        return outboxRepository.save(OrderOutboxEvent.builder()
+                .orderId(orderId)
+                .eventType(OrderEvent.ORDER_PLACED)
+                .payload("{}")
+                .availableAt(now)
+                .createdAt(now)
+                .build()).getId();
+    }
+}
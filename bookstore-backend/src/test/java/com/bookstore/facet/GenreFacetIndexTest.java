@@ -0,0 +1,79 @@
+package com.bookstore.facet;
+
+import com.bookstore.dto.BookDto;
+import com.bookstore.model.Book;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.service.CatalogVersions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A private index per test, so the application's startup rebuild cannot replace what a test put
+@SpringBootTest
+@ActiveProfiles("test")
+class GenreFacetIndexTest {
+
+    private static final long BOOK_ID = 1L;
+
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    private GenreFacetIndex index;
+
+    @BeforeEach
+    void newIndex() {
+        index = new GenreFacetIndex(bookRepository, catalogVersions);
+    }
+
+    @Test
+    void lateStockChangeDoesNotOverwriteANewerOne() {
+        index.put(book(1, 5));
+
+        // Two orders commit at versions 6 and 7; the callback of the first runs last
+        index.stockChanged(BOOK_ID, 0, 7);
+        index.stockChanged(BOOK_ID, 1, 6);
+
+        assertThat(facet().getInStock()).isZero();
+    }
+
+    @Test
+    void staleBookWriteDoesNotOverwriteANewerStockChange() {
+        index.put(book(1, 5));
+        index.stockChanged(BOOK_ID, 0, 7);
+
+        index.put(book(1, 6));
+
+        assertThat(facet().getInStock()).isZero();
+        assertThat(facet().getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void newerChangesApplyInOrder() {
+        index.put(book(0, 5));
+
+        index.stockChanged(BOOK_ID, 4, 6);
+        assertThat(facet().getInStock()).isEqualTo(1);
+
+        index.stockChanged(BOOK_ID, 2, 7);
+        index.put(book(0, 8));
+        assertThat(facet().getInStock()).isZero();
+    }
+
+    private BookDto.GenreFacet facet() {
+        return index.facets().stream().filter(facet -> facet.getGenre().equals("Patched"))
+                .findFirst().orElseThrow();
+    }
+
+    private static Book book(int stock, long version) {
+        return Book.builder().id(BOOK_ID).title("Versioned").author("Facet Author").genre("Patched")
+                .price(BigDecimal.TEN).stockQuantity(stock).version(version).build();
+    }
+}
@@ -0,0 +1,160 @@
+package com.bookstore.migration;
+
+import com.bookstore.BookstoreApplication;
+import com.bookstore.model.Book;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.BookSort;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Applies V1-V3 to an empty database on a real server, starts the application on it with
+ * ddl-auto=validate, and checks that the listing sorts and order queries are read in index order.
+ * Runs only when pointed at a server, e.g.
+ * BOOKSTORE_IT_POSTGRES_URL=jdbc:postgresql://localhost:5432/ or
+ * BOOKSTORE_IT_MYSQL_URL=jdbc:mysql://localhost:3306/ (MySQL or MariaDB), with _USER and _PASSWORD
+ * alongside. Each run creates and drops its own database.
+ */
+class SchemaMigrationTest {
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "BOOKSTORE_IT_POSTGRES_URL", matches = ".+")
+    void postgresMigratesValidatesAndServesSortsFromIndexes() throws Exception {
+        migrateValidateAndExplain("POSTGRES", "org.postgresql.Driver", "org.hibernate.dialect.PostgreSQLDialect");
+    }
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "BOOKSTORE_IT_MYSQL_URL", matches = ".+")
+    void mysqlMigratesValidatesAndServesSortsFromIndexes() throws Exception {
+        migrateValidateAndExplain("MYSQL", "com.mysql.cj.jdbc.Driver", "org.hibernate.dialect.MySQLDialect");
+    }
+
+    private void migrateValidateAndExplain(String server, String driver, String dialect) throws Exception {
+        String serverUrl = System.getenv("BOOKSTORE_IT_" + server + "_URL");
+        String user = System.getenv().getOrDefault("BOOKSTORE_IT_" + server + "_USER", "root");
+        String password = System.getenv().getOrDefault("BOOKSTORE_IT_" + server + "_PASSWORD", "");
+        String database = "bookstore_it_" + UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+
+        admin(serverUrl, user, password, "CREATE DATABASE " + database);
+        try {
+            // Starting at all means every entity matched the migrated schema
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BookstoreApplication.class)
+                    .run("--spring.profiles.active=test",
+                            "--server.port=0",
+                            "--spring.datasource.url=" + serverUrl + database,
+                            "--spring.datasource.username=" + user,
+                            "--spring.datasource.password=" + password,
+                            "--spring.datasource.driver-class-name=" + driver,
+                            "--spring.jpa.properties.hibernate.dialect=" + dialect,
+                            "--spring.jpa.hibernate.ddl-auto=validate",
+                            "--bookstore.schema.migrate=true")) {
+                JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+                assertThat(jdbcTemplate.queryForList("SELECT version FROM schema_version ORDER BY version",
+                        Integer.class)).containsExactly(1, 2, 3);
+
+                // A second run finds every script applied with an unchanged checksum
+                new SchemaMigrator(context.getBean(DataSource.class)).migrate();
+                assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM schema_version", Integer.class))
+                        .isEqualTo(3);
+
+                seed(context);
+                assertIndexOrdered(jdbcTemplate);
+            }
+        } finally {
+            admin(serverUrl, user, password, "DROP DATABASE " + database);
+        }
+    }
+
+    // At a few thousand rows MariaDB still prefers a filesort over the order indexes; at the runner's
+    // 20,000 it reads them. PostgreSQL plans are taken with scans and sorts priced out
+    private static void seed(ConfigurableApplicationContext context) {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            books.add(Book.builder().title("Title " + (i * 7919 % 2_000)).author("Author " + i % 200)
+                    .genre("Genre " + i % 10).isbn("978-" + i).price(BigDecimal.valueOf(100 + i % 900, 2))
+                    .stockQuantity(5).build());
+        }
+        context.getBean(BookRepository.class).saveAll(books);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("INSERT INTO users (name, email, password, role) VALUES " +
+                "('Plan Reader', 'plan-reader@example.com', 'x', 'CUSTOMER')");
+        long userId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM users", Long.class);
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> orders = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            orders.add(new Object[]{userId, Timestamp.valueOf(now.minusMinutes(i)), 10 + i % 90});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO orders (user_id, status, payment_status, created_at, total_amount, " +
+                "item_count, version) VALUES (?, 'DELIVERED', 'PAID', ?, ?, 1, 0)", orders);
+    }
+
+    private static void assertIndexOrdered(JdbcTemplate jdbcTemplate) {
+        List<String> queries = new ArrayList<>();
+        for (BookSort sort : BookSort.values()) {
+            for (Sort.Direction direction : Sort.Direction.values()) {
+                queries.add("SELECT * FROM books ORDER BY " + sort.toSort(direction).stream()
+                        .map(order -> order.getProperty() + " " + direction)
+                        .collect(Collectors.joining(", ")) + " LIMIT 12");
+            }
+        }
+        long userId = jdbcTemplate.queryForObject("SELECT MIN(user_id) FROM orders", Long.class);
+        queries.add("SELECT * FROM orders WHERE user_id = " + userId + " ORDER BY created_at DESC, id DESC LIMIT 20");
+        queries.add("SELECT * FROM orders ORDER BY created_at DESC, id DESC LIMIT 20");
+        queries.add("SELECT * FROM orders ORDER BY total_amount DESC, id DESC LIMIT 10");
+
+        // One connection, so the PostgreSQL settings apply to every EXPLAIN
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            JdbcTemplate session = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+            boolean postgres = connection.getMetaData().getDatabaseProductName().equals("PostgreSQL");
+            session.execute(postgres ? "ANALYZE" : "ANALYZE TABLE books, orders");
+            if (postgres) {
+                session.execute("SET enable_seqscan = off");
+                session.execute("SET enable_sort = off");
+            }
+            for (String sql : queries) {
+                List<Map<String, Object>> plan = session.queryForList("EXPLAIN " + sql);
+                if (postgres) {
+                    String text = plan.stream().map(row -> String.valueOf(row.values().iterator().next()))
+                            .collect(Collectors.joining("\n"));
+                    assertThat(text).as(sql).doesNotContain("Seq Scan").doesNotContain("Sort Key");
+                } else {
+                    assertThat(plan).as(sql).allSatisfy(row -> {
+                        assertThat(row.get("type")).isNotEqualTo("ALL");
+                        assertThat(String.valueOf(row.get("Extra"))).doesNotContain("Using filesort");
+                    });
+                }
+            }
+            return null;
+        });
+    }
+
+    private static void admin(String serverUrl, String user, String password, String sql) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(serverUrl, user, password);
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.bookstore.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// H2 plans for the entity-built schema. H2 cannot read an index backwards, so only ascending sorts are
+// checked here; SchemaMigrationTest checks both directions on MySQL and PostgreSQL
+@SpringBootTest
+@ActiveProfiles("test")
+class QueryPlanTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void everyListingSortIsReadInIndexOrder() {
+        for (BookSort sort : BookSort.values()) {
+            String orderBy = sort.toSort(Sort.Direction.ASC).stream()
+                    .map(Sort.Order::getProperty)
+                    .collect(Collectors.joining(", "));
+
+            String plan = explain("SELECT * FROM books ORDER BY " + orderBy + " LIMIT 12");
+
+            assertThat(plan).as(sort.name()).doesNotContain(".tableScan").contains("index sorted");
+            if (sort.index() != null) {
+                assertThat(plan).as(sort.name()).contains(sort.index());
+            }
+        }
+    }
+
+    @Test
+    void lookupsDoNotScanTheTable() {
+        for (String sql : new String[]{
+                "SELECT * FROM users WHERE email = 'reader@example.com'",
+                "SELECT isbn, id FROM books WHERE isbn IN ('978-0')",
+                "SELECT * FROM books WHERE genre_key = 'fiction'",
+                "SELECT * FROM order_items WHERE order_id IN (1, 2)",
+                "SELECT * FROM order_items WHERE book_id = 1",
+                "SELECT * FROM orders WHERE user_id = 1",
+                "SELECT * FROM orders WHERE total_amount >= 50 AND total_amount <= 51"}) {
+            assertThat(explain(sql)).as(sql).doesNotContain(".tableScan");
+        }
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+    }
+}
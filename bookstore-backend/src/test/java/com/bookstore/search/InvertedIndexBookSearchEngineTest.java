@@ -0,0 +1,94 @@
+package com.bookstore.search;
+
+import com.bookstore.model.Book;
+import com.bookstore.repository.BookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InvertedIndexBookSearchEngineTest {
+
+    private final BookRepository bookRepository = mock(BookRepository.class);
+    private final InvertedIndexBookSearchEngine engine = new InvertedIndexBookSearchEngine(bookRepository);
+
+    @AfterEach
+    void tearDown() {
+        engine.shutdown();
+    }
+
+    @Test
+    void updateDuringRebuildIsNotOverwrittenByTheStaleBatch() {
+        when(bookRepository.findByIdGreaterThan(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            // The batch was read before the book was renamed and reindexed by BookService
+            List<Book> stale = List.of(book(1L, "Old Title"), book(2L, "Other Book"));
+            engine.index(book(1L, "New Title"));
+            engine.remove(2L);
+            return new SliceImpl<>(stale, PageRequest.of(0, 1000), false);
+        });
+
+        engine.rebuild();
+
+        assertThat(engine.tokensOf(1L)).contains("new").doesNotContain("old");
+        assertThat(engine.tokensOf(2L)).isEmpty();
+    }
+
+    @Test
+    void writesAfterTheRebuildAreNotSkippedByTheNextOne() {
+        when(bookRepository.findByIdGreaterThan(anyLong(), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(book(1L, "First Title")), PageRequest.of(0, 1000), false));
+        engine.index(book(1L, "Ignored"));
+        engine.rebuild();
+        engine.rebuild();
+
+        assertThat(engine.tokensOf(1L)).contains("first");
+    }
+
+    @Test
+    void rebuildsNeverOverlap() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        AtomicInteger rebuilds = new AtomicInteger();
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(bookRepository.findByIdGreaterThan(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            rebuilds.incrementAndGet();
+            firstStarted.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            running.decrementAndGet();
+            return new SliceImpl<>(List.<Book>of(), PageRequest.of(0, 1000), false);
+        });
+
+        engine.reindex();
+        assertThat(firstStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread direct = new Thread(engine::rebuild);
+        direct.start();
+        for (int i = 0; i < 10; i++) {
+            engine.reindex();
+        }
+        release.countDown();
+        direct.join(5_000);
+        engine.shutdown();
+
+        // The running one, the direct call and one coalesced for the ten reindex() calls
+        assertThat(maxRunning.get()).isEqualTo(1);
+        assertThat(rebuilds.get()).isLessThanOrEqualTo(3);
+    }
+
+    private static Book book(Long id, String title) {
+        return Book.builder().id(id).title(title).author("Ada Park").genre("Fiction").build();
+    }
+}
@@ -0,0 +1,85 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.BookDto;
+import com.bookstore.dto.SliceResponse;
+import com.bookstore.exception.BadRequestException;
+import com.bookstore.model.Book;
+import com.bookstore.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BookCursorPaginationTest {
+
+    private static final String GENRE = "Cursor Test";
+
+    @Autowired
+    private BookService bookService;
+    @Autowired
+    private BookRepository bookRepository;
+
+    @BeforeEach
+    void seedBooks() {
+        if (!bookService.findBooks(null, GENRE, null, null, PageLimits.pageRequest(0, 1,
+                bookService.listingSort("id", "asc"))).isEmpty()) {
+            return;
+        }
+        // Few authors, repeated titles and prices, so every sort has ties to break
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            books.add(Book.builder().title("Title " + (i % 7)).author("Author " + (i % 3)).genre(GENRE)
+                    .isbn("CURSOR-" + i).price(BigDecimal.valueOf(5 + i % 4)).stockQuantity(1).build());
+        }
+        bookRepository.saveAll(books);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"title,asc", "author,desc", "price,asc", "id,desc", "'author,title',asc", "'author,title',desc"})
+    void cursorPagesMatchTheOffsetListing(String sortBy, String sortDir) {
+        List<Long> expected = bookService.findBooks(null, GENRE, null, null,
+                        PageLimits.pageRequest(0, 100, bookService.listingSort(sortBy, sortDir)))
+                .map(Book::getId).getContent();
+
+        List<Long> paged = new ArrayList<>();
+        String after = null;
+        do {
+            SliceResponse<BookDto.BookResponse> slice = bookService.getBooksAfter(after, 3, sortBy, sortDir, GENRE);
+            slice.getContent().forEach(book -> paged.add(book.getId()));
+            after = slice.getNextCursor();
+        } while (after != null);
+
+        assertThat(expected).hasSize(40);
+        assertThat(paged).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void cursorIssuedForAnotherSortIsRejected() {
+        String titleCursor = bookService.getBooksAfter(null, 3, "title", "asc", GENRE).getNextCursor();
+
+        assertThatThrownBy(() -> bookService.getBooksAfter(titleCursor, 3, "author,title", "asc", GENRE))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void pageSizeIsBounded() {
+        assertThatThrownBy(() -> bookService.getBooksAfter(null, PageLimits.MAX_PAGE_SIZE + 1, "title", "asc", null))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> PageLimits.pageRequest(0, 0, bookService.listingSort("title", "asc")))
+                .isInstanceOf(BadRequestException.class);
+        assertThat(PageLimits.pageRequest(3, PageLimits.MAX_PAGE_SIZE, bookService.listingSort("title", "asc"))
+                .getPageSize()).isEqualTo(PageLimits.MAX_PAGE_SIZE);
+    }
+}
@@ -0,0 +1,70 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.BookDto;
+import com.bookstore.repository.BookRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BookImportServiceTest {
+
+    @Autowired
+    private BookImportService bookImportService;
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Test
+    void rowRejectedByTheDatabaseFailsAloneAndTheRestOfItsBatchIsWritten() throws Exception {
+        String tooLong = "x".repeat(300);
+        BookDto.ImportReport report = importNdjson(
+                row("Import Ok 1", "IMP-1"),
+                row(tooLong, "IMP-2"),
+                row("Import Ok 3", "IMP-3"));
+
+        assertThat(report.getInserted()).isEqualTo(2);
+        assertThat(report.getFailed()).isEqualTo(1);
+        assertThat(report.getErrors()).singleElement().satisfies(error -> {
+            assertThat(error.getRow()).isEqualTo(2);
+            assertThat(error.getMessage()).startsWith("Rejected by database");
+        });
+        assertThat(bookRepository.findIdsByIsbnIn(List.of("IMP-1", "IMP-2", "IMP-3"))).hasSize(2);
+    }
+
+    @Test
+    void duplicateIsbnInABatchIsReported() throws Exception {
+        BookDto.ImportReport report = importNdjson(
+                row("First Copy", "IMP-DUP"),
+                row("Other Book", "IMP-OTHER"),
+                row("Second Copy", "IMP-DUP"));
+
+        assertThat(report.getRowsRead()).isEqualTo(3);
+        assertThat(report.getInserted()).isEqualTo(2);
+        assertThat(report.getDuplicates()).isEqualTo(1);
+        assertThat(report.getFailed()).isZero();
+        assertThat(report.getErrors()).singleElement().satisfies(error -> {
+            assertThat(error.getRow()).isEqualTo(1);
+            assertThat(error.getMessage()).contains("IMP-DUP").contains("row 3");
+        });
+        Long id = (Long) bookRepository.findIdsByIsbnIn(List.of("IMP-DUP")).get(0)[1];
+        assertThat(bookRepository.findById(id).orElseThrow().getTitle()).isEqualTo("Second Copy");
+    }
+
+    private BookDto.ImportReport importNdjson(String... rows) throws Exception {
+        byte[] body = String.join("\n", rows).getBytes(StandardCharsets.UTF_8);
+        return bookImportService.importBooks(new ByteArrayInputStream(body), BookImportService.Format.NDJSON);
+    }
+
+    private static String row(String title, String isbn) {
+        return "{\"title\":\"" + title + "\",\"author\":\"Importer\",\"isbn\":\"" + isbn
+                + "\",\"price\":9.99,\"stockQuantity\":3}";
+    }
+}
@@ -0,0 +1,90 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.BookDto;
+import com.bookstore.exception.ConflictException;
+import com.bookstore.model.Book;
+import com.bookstore.repository.BookRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+
+// An admin update loses its version check to a concurrent write and is retried
+@SpringBootTest
+@ActiveProfiles("test")
+class BookUpdateRetryTest {
+
+    @Autowired
+    private BookService bookService;
+    @SpyBean
+    private BookRepository bookRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void retryDoesNotUndoACheckoutDecrement() {
+        Book book = book("decremented", 10);
+        // A checkout commits between the update's read and its flush
+        interleave("UPDATE books SET stock_quantity = stock_quantity - 3, version = version + 1 WHERE id = ?",
+                book.getId());
+
+        assertThatThrownBy(() -> bookService.updateBook(book.getId(), request("Renamed", 10)))
+                .isInstanceOf(ConflictException.class)
+                .hasMessageContaining("from 10 to 7");
+        assertThat(bookRepository.findById(book.getId()).orElseThrow())
+                .extracting(Book::getTitle, Book::getStockQuantity)
+                .containsExactly("decremented", 7);
+    }
+
+    @Test
+    void retryStillReplacesOtherFields() {
+        Book book = book("retitled", 10);
+        interleave("UPDATE books SET description = 'edited', version = version + 1 WHERE id = ?", book.getId());
+
+        Book saved = bookService.updateBook(book.getId(), request("Renamed", 12));
+
+        assertThat(saved.getTitle()).isEqualTo("Renamed");
+        assertThat(saved.getStockQuantity()).isEqualTo(12);
+        assertThat(saved.getDescription()).isNull();
+    }
+
+    // Runs the statement on another connection right before the first saveAndFlush, so that flush
+    // fails its version check
+    private void interleave(String sql, Long id) {
+        AtomicBoolean done = new AtomicBoolean();
+        doAnswer(invocation -> {
+            if (done.compareAndSet(false, true)) {
+                Thread writer = new Thread(() -> jdbcTemplate.update(sql, id));
+                writer.start();
+                writer.join();
+            }
+            // The repository is a JDK proxy, so the spy delegates to it rather than calling a real method
+            return mockingDetails(bookRepository).getMockCreationSettings().getDefaultAnswer().answer(invocation);
+        }).when(bookRepository).saveAndFlush(any(Book.class));
+    }
+
+    private Book book(String title, int stock) {
+        return bookRepository.save(Book.builder().title(title).author("Retry Author")
+                .price(BigDecimal.TEN).stockQuantity(stock).build());
+    }
+
+    private static BookDto.BookRequest request(String title, int stock) {
+        BookDto.BookRequest request = new BookDto.BookRequest();
+        request.setTitle(title);
+        request.setAuthor("Retry Author");
+        request.setPrice(BigDecimal.TEN);
+        request.setStockQuantity(stock);
+        return request;
+    }
+}
@@ -0,0 +1,133 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.BookDto;
+import com.bookstore.dto.OrderDto;
+import com.bookstore.facet.GenreFacetIndex;
+import com.bookstore.metrics.MetricsRegistry;
+import com.bookstore.model.Book;
+import com.bookstore.model.Order;
+import com.bookstore.model.User;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Each test starts its own batcher, so batch size and worker count are under the test's control
+@SpringBootTest
+@ActiveProfiles("test")
+class CheckoutBatcherTest {
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private StockReservationService stockReservationService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private GenreFacetIndex genreFacetIndex;
+
+    private final MetricsRegistry metrics = new MetricsRegistry();
+    private CheckoutBatcher batcher;
+
+    @AfterEach
+    void stopBatcher() {
+        batcher.shutdown();
+    }
+
+    @Test
+    void laterOrdersInABatchPublishTheStockTheyLeft() throws Exception {
+        String genre = "Batched " + UUID.randomUUID();
+        Book book = book(genre, 3);
+        genreFacetIndex.put(book);
+        String email = user();
+        // One worker waiting half a second collects all three orders into one batch
+        batcher = batcher(64, 500_000, 1);
+
+        List<CompletableFuture<Order>> orders = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            orders.add(batcher.placeOrder(email, request(book.getId())));
+        }
+        for (CompletableFuture<Order> order : orders) {
+            order.get(10, TimeUnit.SECONDS);
+        }
+
+        assertThat(metrics.scrape()).contains("checkout_batches_total 1.0\n");
+        assertThat(stock(book)).isZero();
+        // The third order saw the book at stock 1 unless it was refreshed after the second one's decrement
+        assertThat(genreFacetIndex.facets()).filteredOn(facet -> facet.getGenre().equals(genre))
+                .singleElement()
+                .extracting(BookDto.GenreFacet::getInStock)
+                .isEqualTo(0);
+    }
+
+    @Test
+    void concurrentBatchesOverSharedBooksDoNotDeadlock() throws Exception {
+        Book first = book(null, 1_000);
+        Book second = book(null, 1_000);
+        String email = user();
+        batcher = batcher(8, 2_000, 2);
+
+        // Alternating books, so two batches usually hold both and would take them in opposite orders
+        List<CompletableFuture<Order>> orders = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            orders.add(batcher.placeOrder(email, request((i % 3 == 0 ? first : second).getId())));
+        }
+        for (CompletableFuture<Order> order : orders) {
+            order.get(30, TimeUnit.SECONDS);
+        }
+
+        assertThat(metrics.scrape()).contains("checkout_batch_fallbacks_total 0.0\n");
+        assertThat(stock(first) + stock(second)).isEqualTo(2_000 - 400);
+        assertThat(stock(first)).isEqualTo(1_000 - 134);
+    }
+
+    private CheckoutBatcher batcher(int maxBatch, long maxWaitMicros, int workers) {
+        return new CheckoutBatcher(orderService, stockReservationService, userRepository, transactionTemplate,
+                entityManager, metrics, true, maxBatch, maxWaitMicros, workers, 1_000);
+    }
+
+    private static OrderDto.PlaceOrderRequest request(Long bookId) {
+        OrderDto.OrderItemRequest item = new OrderDto.OrderItemRequest();
+        item.setBookId(bookId);
+        item.setQuantity(1);
+        OrderDto.PlaceOrderRequest request = new OrderDto.PlaceOrderRequest();
+        request.setItems(List.of(item));
+        return request;
+    }
+
+    private String user() {
+        String email = "batch-" + UUID.randomUUID() + "@example.com";
+        userRepository.save(User.builder().name("Batch Buyer").email(email).password("x")
+                .role(User.Role.CUSTOMER).build());
+        return email;
+    }
+
+    private Book book(String genre, int stock) {
+        return bookRepository.save(Book.builder().title("Batched Book").author("Batch Author").genre(genre)
+                .price(BigDecimal.TEN).stockQuantity(stock).build());
+    }
+
+    private int stock(Book book) {
+        return bookRepository.findById(book.getId()).orElseThrow().getStockQuantity();
+    }
+}
@@ -0,0 +1,114 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.OrderDto;
+import com.bookstore.model.Book;
+import com.bookstore.model.Order;
+import com.bookstore.model.OrderItem;
+import com.bookstore.model.User;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.OrderRepository;
+import com.bookstore.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Order pages must cost the same number of statements however many orders, items and books they hold
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderListingStatementCountTest {
+
+    private static final String EMAIL = "statements@bookstore.com";
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void seedOrders() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (userRepository.existsByEmail(EMAIL)) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = userRepository.save(User.builder()
+                    .name("Statement Counter").email(EMAIL).password("x").role(User.Role.CUSTOMER).build());
+            List<Book> books = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                books.add(bookRepository.save(Book.builder().title("Statement Book " + i).author("Author " + i)
+                        .isbn("STMT-" + i).price(BigDecimal.TEN).stockQuantity(100).build()));
+            }
+            for (int o = 0; o < 30; o++) {
+                Order order = Order.builder().user(user).totalAmount(BigDecimal.ZERO).itemCount(0).build();
+                for (int i = 0; i < 3; i++) {
+                    order.getOrderItems().add(OrderItem.builder().order(order).book(books.get((o + i) % books.size()))
+                            .quantity(1).unitPrice(BigDecimal.TEN).build());
+                }
+                orderRepository.save(order);
+            }
+        });
+    }
+
+    @Test
+    void adminOrderPageUsesConstantStatements() {
+        long small = statementsFor(() -> orderService.getAllOrders(PageRequest.of(0, 5, Sort.by("id"))));
+        long large = statementsFor(() -> orderService.getAllOrders(PageRequest.of(0, 25, Sort.by("id"))));
+
+        // Page select, count and one fetch-join for items and books
+        assertThat(small).isEqualTo(3);
+        assertThat(large).isEqualTo(small);
+    }
+
+    @Test
+    void customerOrderPageUsesConstantStatements() {
+        long small = statementsFor(() -> orderService.getOrdersByUser(EMAIL, PageRequest.of(0, 5, Sort.by("id"))));
+        long large = statementsFor(() -> orderService.getOrdersByUser(EMAIL, PageRequest.of(0, 25, Sort.by("id"))));
+
+        // Plus the user lookup
+        assertThat(small).isEqualTo(4);
+        assertThat(large).isEqualTo(small);
+    }
+
+    @Test
+    void orderCursorPageUsesConstantStatements() {
+        long small = statementsFor(() -> orderService.getAllOrdersAfter(null, 5).getContent());
+        long large = statementsFor(() -> orderService.getAllOrdersAfter(null, 25).getContent());
+
+        // Slice select and the fetch-join; no count
+        assertThat(small).isEqualTo(2);
+        assertThat(large).isEqualTo(small);
+    }
+
+    private long statementsFor(Supplier<Iterable<OrderDto.OrderResponse>> listing) {
+        statistics.clear();
+        Iterable<OrderDto.OrderResponse> orders = listing.get();
+        // Other tests in the shared context place orders too; every order's items must be loaded
+        assertThat(orders).isNotEmpty().allSatisfy(order -> assertThat(order.getItems()).isNotEmpty());
+        return statistics.getPrepareStatementCount();
+    }
+}
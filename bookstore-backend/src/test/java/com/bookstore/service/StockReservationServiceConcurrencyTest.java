@@ -0,0 +1,141 @@
+package com.bookstore.service;
+
+import com.bookstore.exception.BadRequestException;
+import com.bookstore.model.Book;
+import com.bookstore.repository.BookRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class StockReservationServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void concurrentCartsNeverOversell() throws Exception {
+        Book scarce = book("scarce", 50);
+        Book plenty = book("plenty", 10_000);
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        // Half the carts list the books in the opposite order; reserve() must still lock them in id order
+        long elapsedNanos = runConcurrently(200, i -> {
+            Map<Long, Integer> cart = i % 2 == 0
+                    ? Map.of(scarce.getId(), 1, plenty.getId(), 2)
+                    : Map.of(plenty.getId(), 2, scarce.getId(), 1);
+            try {
+                transactionTemplate.executeWithoutResult(status -> stockReservationService.reserve(cart));
+                reserved.incrementAndGet();
+            } catch (BadRequestException e) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        assertThat(reserved.get()).isEqualTo(50);
+        assertThat(rejected.get()).isEqualTo(150);
+        assertThat(stock(scarce)).isZero();
+        // Rejected carts roll back their decrement of the plentiful book
+        assertThat(stock(plenty)).isEqualTo(10_000 - 2 * 50);
+        System.out.printf("%d carts on %d threads in %d ms%n", 200, THREADS, elapsedNanos / 1_000_000);
+    }
+
+    @Test
+    void throughputOnDisjointBooks() throws Exception {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            books.add(book("disjoint-" + i, 1_000));
+        }
+        int carts = 2_000;
+
+        long elapsedNanos = runConcurrently(carts, i -> transactionTemplate.executeWithoutResult(status ->
+                stockReservationService.reserve(Map.of(books.get(i % books.size()).getId(), 1))));
+
+        assertThat(books).allSatisfy(book -> assertThat(stock(book)).isEqualTo(1_000 - carts / THREADS));
+        System.out.printf("%.0f reservations/s on %d threads%n", carts * 1e9 / elapsedNanos, THREADS);
+    }
+
+    @Test
+    void shortfallRollsBackTheWholeCart() {
+        Book available = book("available", 5);
+        Book lowStock = book("short", 1);
+
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status ->
+                stockReservationService.reserve(Map.of(available.getId(), 2, lowStock.getId(), 3))))
+                .isInstanceOf(BadRequestException.class);
+
+        assertThat(stock(available)).isEqualTo(5);
+        assertThat(stock(lowStock)).isEqualTo(1);
+    }
+
+    @Test
+    void tryReserveRestoresAppliedDecrementsWithoutFailingTheTransaction() {
+        Book available = book("try-available", 5);
+        Book lowStock = book("try-short", 1);
+
+        StockReservationService.Reservation reservation = transactionTemplate.execute(status ->
+                stockReservationService.tryReserve(Map.of(available.getId(), 2, lowStock.getId(), 3)));
+
+        assertThat(reservation.succeeded()).isFalse();
+        assertThat(stock(available)).isEqualTo(5);
+        assertThat(stock(lowStock)).isEqualTo(1);
+    }
+
+    private long runConcurrently(int tasks, IntTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < tasks; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run(index);
+                    return null;
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+            return System.nanoTime() - begin;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Book book(String name, int stock) {
+        return bookRepository.save(Book.builder().title("Reservation " + name).author("Test")
+                .isbn("RES-" + name).price(BigDecimal.ONE).stockQuantity(stock).build());
+    }
+
+    private int stock(Book book) {
+        return bookRepository.findById(book.getId()).orElseThrow().getStockQuantity();
+    }
+
+    @FunctionalInterface
+    private interface IntTask {
+        void run(int index) throws Exception;
+    }
+}